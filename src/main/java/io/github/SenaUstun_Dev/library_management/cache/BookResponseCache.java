@@ -0,0 +1,130 @@
+package io.github.SenaUstun_Dev.library_management.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.SenaUstun_Dev.library_management.dto.response.BookResponse;
+import io.github.SenaUstun_Dev.library_management.service.BookService.VersionedBook;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Kitap id'sine göre BookResponse önbelleği (read-through). Yanıt, okunduğu satırın sürümüyle birlikte tutulur;
+ * koşullu GET önbellekteki kaydı sadece sürüm veritabanındakiyle eşleşiyorsa kullanır.
+ * Boyut sınırlıdır; hit/miss/eviction değerleri "cache.*{cache=bookResponses}" metrikleri olarak yayınlanır.
+ * Kitabın durumunu veya ilişkilerini değiştiren her yazma işlemi {@link #invalidate} çağırmalıdır.
+ * <p>
+ * Önbellek her replikada ayrıdır; başka bir düğümdeki yazmalar BookSearchIndexer.refresh ile last_modified_at
+ * üzerinden yakalanıp bu düğümde de silinir (refresh-interval-ms kadar gecikmeyle).
+ */
+@Component
+public class BookResponseCache {
+
+    public static final String CACHE_NAME = "bookResponses";
+
+    private final Cache<Long, VersionedBook> cache;
+    // Her invalidate çağrısında artar; kilit dışında yüklenen bir kaydın arada eskiyip eskimediğini anlamak için
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public BookResponseCache(@Value("${library.cache.book-responses.maximum-size}") long maximumSize,
+                             @Value("${library.cache.book-responses.expire-after-write}") Duration expireAfterWrite,
+                             MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                // Toplu yüklemede kaçabilecek eski kayıtlar için üst sınır
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Caffeine'in get(key, loader) metodu yükleyiciyi ConcurrentHashMap.compute içinde (synchronized) çalıştırır;
+     * yükleyici JDBC beklerken sanal iş parçacığı taşıyıcısına sabitlenir (pinning). Bu yüzden yükleme kilit dışında
+     * yapılır. Yükleme sırasında bir invalidate olduysa eklenen kayıt geri silinir, eski veri önbellekte kalmaz.
+     */
+    public VersionedBook get(Long bookId, Function<Long, VersionedBook> loader) {
+        VersionedBook cached = cache.getIfPresent(bookId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = invalidations.get();
+        VersionedBook loaded = loader.apply(bookId);
+        if (loaded != null) {
+            cache.put(bookId, loaded);
+            if (invalidations.get() != generation) {
+                cache.invalidate(bookId);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Önbellekte olmayan id'leri tek seferde loader ile yükler, sonucu verilen id sırasıyla döndürür.
+     * Loader'ın döndürmediği (bulunamayan) id'ler sonuçta yer almaz. get ile aynı şekilde, yükleme sırasında bir
+     * invalidate olduysa yüklenen kayıtlar önbellekten geri silinir.
+     */
+    public List<BookResponse> getAll(List<Long> bookIds, Function<Set<? extends Long>, Map<Long, VersionedBook>> loader) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        long generation = invalidations.get();
+        Set<Long> loadedIds = new HashSet<>();
+        Map<Long, VersionedBook> responses = cache.getAll(bookIds, missingIds -> {
+            Map<Long, VersionedBook> loaded = loader.apply(missingIds);
+            loadedIds.addAll(loaded.keySet());
+            return loaded;
+        });
+        if (!loadedIds.isEmpty() && invalidations.get() != generation) {
+            cache.invalidateAll(loadedIds);
+        }
+        return bookIds.stream()
+                .map(responses::get)
+                .filter(Objects::nonNull)
+                .map(VersionedBook::book)
+                .collect(Collectors.toList());
+    }
+
+    public void invalidate(Long bookId) {
+        invalidate(List.of(bookId));
+    }
+
+    /**
+     * Kayıtları hemen siler ve aktif bir transaction varsa tamamlandıktan sonra (commit ya da rollback) tekrar siler.
+     * Böylece transaction sürerken eski veriyle doldurulan kayıtlar da temizlenir.
+     */
+    public void invalidate(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(bookIds);
+        invalidations.incrementAndGet();
+        cache.invalidateAll(ids);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidations.incrementAndGet();
+                    cache.invalidateAll(ids);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.SenaUstun_Dev.library_management.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.SenaUstun_Dev.library_management.entity.BookGenre;
+import io.github.SenaUstun_Dev.library_management.entity.Publisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Nadiren değişen tür ve yayıncılar için id -> referans önbelleği.
+ * Kitap yazma işlemlerinde ilişki kurmak için kullanılır; önbellekte entity'nin hiçbir persistence context'e
+ * bağlı olmayan, koleksiyonsuz bir kopyası tutulur. Kopya version değerini de taşır; version'ı null olan
+ * bir referans Hibernate tarafından kaydedilmemiş (transient) sayılır.
+ * Tür/yayıncı güncelleme ve silme işlemleri {@link #invalidateGenre}/{@link #invalidatePublisher} çağırmalıdır.
+ */
+@Component
+public class ReferenceDataCache {
+
+    private final Cache<Long, BookGenre> genres;
+    private final Cache<Long, Publisher> publishers;
+
+    public ReferenceDataCache(@Value("${library.cache.reference-data.maximum-size}") long maximumSize,
+                              @Value("${library.cache.reference-data.expire-after-write}") Duration expireAfterWrite,
+                              MeterRegistry meterRegistry) {
+        this.genres = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.publishers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, genres, "bookGenreReferences");
+        CaffeineCacheMetrics.monitor(meterRegistry, publishers, "publisherReferences");
+    }
+
+    /**
+     * Önbellekte olmayan id'ler tek seferde loader ile yüklenir. Bulunamayan id'ler sonuçta yer almaz.
+     */
+    public Map<Long, BookGenre> getGenres(Set<Long> ids, Function<Set<Long>, Collection<BookGenre>> loader) {
+        return genres.getAll(ids, missingIds -> loader.apply(Set.copyOf(missingIds)).stream()
+                .collect(Collectors.toMap(BookGenre::getId, genre -> BookGenre.builder()
+                        .id(genre.getId())
+                        .name(genre.getName())
+                        .version(genre.getVersion())
+                        .lastModifiedAt(genre.getLastModifiedAt())
+                        .build())));
+    }
+
+    public Map<Long, Publisher> getPublishers(Set<Long> ids, Function<Set<Long>, Collection<Publisher>> loader) {
+        return publishers.getAll(ids, missingIds -> loader.apply(Set.copyOf(missingIds)).stream()
+                .collect(Collectors.toMap(Publisher::getId, publisher -> Publisher.builder()
+                        .id(publisher.getId())
+                        .name(publisher.getName())
+                        .version(publisher.getVersion())
+                        .lastModifiedAt(publisher.getLastModifiedAt())
+                        .build())));
+    }
+
+    public void invalidateGenre(Long id) {
+        invalidate(genres, id);
+    }
+
+    public void invalidatePublisher(Long id) {
+        invalidate(publishers, id);
+    }
+
+    // BookResponseCache ile aynı: hemen ve transaction tamamlandıktan sonra tekrar silinir
+    private static <V> void invalidate(Cache<Long, V> cache, Long id) {
+        cache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(id);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.SenaUstun_Dev.library_management.circulation;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.SenaUstun_Dev.library_management.repository.BookHoldRepository;
+import io.github.SenaUstun_Dev.library_management.repository.projection.HoldQueueEntry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Kitap başına bekleme sırasının bellek içi kopyası; sadece ipucu olarak (ör. müsaitlik yanıtındaki sıra uzunluğu)
+ * kullanılır. İadede sıradaki kişi her zaman veritabanından seçilir, çünkü başka bir düğümde açılan kayıtlar bu
+ * kopyaya ancak yeniden yüklemede (açılışta ve saatlik) girer.
+ * <p>
+ * Sıra hold id'sine göre tutulur (id artan olduğu için FIFO). Kayıtlar commit beklenmeden eklenir/çıkarılır,
+ * rollback olursa geri alınır.
+ */
+@Component
+@Slf4j
+public class BookHoldQueue {
+
+    private static final Comparator<HoldQueueEntry> FIFO = Comparator.comparing(HoldQueueEntry::holdId);
+
+    private final ConcurrentHashMap<Long, ConcurrentSkipListSet<HoldQueueEntry>> queues = new ConcurrentHashMap<>();
+    private final BookHoldRepository bookHoldRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public BookHoldQueue(BookHoldRepository bookHoldRepository, PlatformTransactionManager transactionManager) {
+        this.bookHoldRepository = bookHoldRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${library.circulation.events.reseed-cron}")
+    public void rebuild() {
+        List<HoldQueueEntry> entries = readOnlyTransaction.execute(status -> bookHoldRepository.findAllQueueEntries());
+        queues.clear();
+        if (entries != null) {
+            entries.forEach(this::add);
+        }
+        log.info("Bekleme sırası yüklendi: {} kitap için {} kayıt", queues.size(), entries == null ? 0 : entries.size());
+    }
+
+    public boolean hasHolds(Long bookId) {
+        ConcurrentSkipListSet<HoldQueueEntry> queue = queues.get(bookId);
+        return queue != null && !queue.isEmpty();
+    }
+
+    public int queueLength(Long bookId) {
+        ConcurrentSkipListSet<HoldQueueEntry> queue = queues.get(bookId);
+        return queue == null ? 0 : queue.size();
+    }
+
+    // Yeni kayıt sıraya hemen girer; transaction geri alınırsa çıkarılır
+    public void enqueue(HoldQueueEntry entry) {
+        add(entry);
+        onRollback(() -> remove(entry));
+    }
+
+    // İptal edilen kayıt sıradan hemen çıkar; transaction geri alınırsa eski yerine döner
+    public void dequeue(HoldQueueEntry entry) {
+        remove(entry);
+        onRollback(() -> add(entry));
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private void add(HoldQueueEntry entry) {
+        queues.compute(entry.bookId(), (id, queue) -> {
+            ConcurrentSkipListSet<HoldQueueEntry> target = (queue == null) ? new ConcurrentSkipListSet<>(FIFO) : queue;
+            target.add(entry);
+            return target;
+        });
+    }
+
+    private void remove(HoldQueueEntry entry) {
+        queues.computeIfPresent(entry.bookId(), (id, queue) -> {
+            queue.remove(entry);
+            return queue.isEmpty() ? null : queue;
+        });
+    }
+
+    private void onRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+}
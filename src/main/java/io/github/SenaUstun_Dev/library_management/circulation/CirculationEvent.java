@@ -0,0 +1,36 @@
+package io.github.SenaUstun_Dev.library_management.circulation;
+
+import java.time.Instant;
+
+import io.github.SenaUstun_Dev.library_management.entity.enums.BorrowingPrivilege;
+import io.github.SenaUstun_Dev.library_management.entity.enums.CirculationEventType;
+
+/**
+ * circulation_events tablosundaki bir kayıt. Yazarken id ve occurredAt boştur, veritabanı atar.
+ */
+public record CirculationEvent(
+        Long id,
+        CirculationEventType type,
+        Long bookId,
+        Long userId,
+        Long loanId,
+        String detail,      // PRIVILEGE_CHANGED için yeni izin değeri
+        Instant occurredAt
+) {
+
+    public static CirculationEvent borrowed(Long bookId, Long userId, Long loanId) {
+        return new CirculationEvent(null, CirculationEventType.BORROWED, bookId, userId, loanId, null, null);
+    }
+
+    public static CirculationEvent returned(Long bookId, Long userId, Long loanId) {
+        return new CirculationEvent(null, CirculationEventType.RETURNED, bookId, userId, loanId, null, null);
+    }
+
+    public static CirculationEvent markedLost(Long bookId, Long userId, Long loanId) {
+        return new CirculationEvent(null, CirculationEventType.MARKED_LOST, bookId, userId, loanId, null, null);
+    }
+
+    public static CirculationEvent privilegeChanged(Long userId, BorrowingPrivilege privilege) {
+        return new CirculationEvent(null, CirculationEventType.PRIVILEGE_CHANGED, null, userId, null, privilege.name(), null);
+    }
+}
@@ -0,0 +1,234 @@
+package io.github.SenaUstun_Dev.library_management.circulation;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.SenaUstun_Dev.library_management.repository.CirculationEventRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * circulation_events defterini takip ederek tutulan bellek içi okuma modelleri:
+ * kitap başına ödünçteki kullanıcı / kayıp bilgisi ve kullanıcı başına açık ödünç kitaplar.
+ * <p>
+ * Başlangıçta açık ödünç kayıtlarından tek bir tutarlı anlık görüntüyle yüklenir, sonra defterdeki yeni olaylar
+ * id sırasıyla uygulanır. Olaylar yazan transaction'la birlikte commit olduğu için id sırasında geçici boşluk
+ * görülebilir (daha önce id almış ama henüz commit olmamış transaction); boşlukta gap-timeout kadar beklenir, sonra
+ * boşluk atlanır. Atlanan id'ler gap-retention boyunca her poll'da yeniden sorgulanır ve geç commit olan olay o zaman
+ * uygulanır; aynı kitabın sonraki olayları kitap kilidi yüzünden ondan önce commit olamayacağı için sıra bozulmaz.
+ * Geri alınan transaction'ların bıraktığı kalıcı boşluklar bu sürenin sonunda unutulur. Yeniden yüklemede anlık
+ * görüntüde görünmeyen yakın tarihli id'ler de aynı şekilde bekletilir. Okumalar en fazla poll aralığı kadar geriden gelir.
+ */
+@Component
+@Slf4j
+public class CirculationProjection {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final CirculationEventRepository circulationEventRepository;
+    private final TransactionTemplate snapshotTransaction;
+    private final Duration gapTimeout;
+    private final Duration gapRetention;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Atlanan olay id'si -> atlandığı an (nanoTime); sadece kilit tutularak kullanılır
+    private final Map<Long, Long> skippedIds = new HashMap<>();
+
+    private volatile State state = new State(0L);
+    private volatile boolean ready;
+    private long gapDetectedAt = -1L;
+
+    public CirculationProjection(CirculationEventRepository circulationEventRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${library.circulation.events.gap-timeout}") Duration gapTimeout,
+                                 @Value("${library.circulation.events.gap-retention}") Duration gapRetention) {
+        this.circulationEventRepository = circulationEventRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.gapTimeout = gapTimeout;
+        this.gapRetention = gapRetention;
+    }
+
+    public record BookLoan(Long userId, boolean lost) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${library.circulation.events.reseed-cron}")
+    public void reseed() {
+        lock.lock();
+        try {
+            // Son olay id'si, açık ödünçler ve henüz görünmeyen olay id'leri aynı anlık görüntüden okunur
+            Seed seed = snapshotTransaction.execute(status -> {
+                long maxId = circulationEventRepository.findMaxId();
+                State seeded = new State(maxId);
+                circulationEventRepository.forEachOpenLoan(loan -> seeded.borrow(loan.bookId(), loan.userId(), loan.lost()));
+                long recentFrom = circulationEventRepository.findMaxIdOccurredBefore(Instant.now().minus(gapRetention));
+                return new Seed(seeded, circulationEventRepository.findMissingIds(recentFrom, maxId));
+            });
+            State fresh = seed.state();
+            state = fresh;
+            gapDetectedAt = -1L;
+            skippedIds.clear();
+            long now = System.nanoTime();
+            seed.missingIds().forEach(id -> skippedIds.put(id, now));
+            ready = true;
+            log.info("Dolaşım projeksiyonu yüklendi: {} açık ödünç, son olay ID: {}", fresh.loansByBook.size(), fresh.lastEventId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.circulation.events.poll-interval-ms}")
+    public void poll() {
+        if (!ready || !lock.tryLock()) {
+            return;
+        }
+        try {
+            State current = state;
+            applySkippedEvents(current);
+            List<CirculationEvent> events;
+            do {
+                events = circulationEventRepository.findAfter(current.lastEventId, BATCH_SIZE);
+                for (CirculationEvent event : events) {
+                    if (event.id() != current.lastEventId + 1) {
+                        if (!gapExpired()) {
+                            return;
+                        }
+                        skip(current.lastEventId + 1, event.id());
+                    }
+                    current.advance(event);
+                    gapDetectedAt = -1L;
+                }
+            } while (events.size() == BATCH_SIZE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Projeksiyonun uyguladığı son olay; yanıtlarda ne kadar güncel olduğunu göstermek için
+    public long lastEventId() {
+        return state.lastEventId;
+    }
+
+    public Optional<BookLoan> findLoan(Long bookId) {
+        return Optional.ofNullable(state.loansByBook.get(bookId));
+    }
+
+    public Set<Long> findLoanedBookIds(Long userId) {
+        Set<Long> bookIds = state.booksByUser.get(userId);
+        return bookIds == null ? Set.of() : Set.copyOf(bookIds);
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private record Seed(State state, List<Long> missingIds) {
+    }
+
+    // Atlanan id'lerden commit olanlar uygulanır; gap-retention dolanlar geri alınmış sayılıp unutulur
+    private void applySkippedEvents(State current) {
+        if (skippedIds.isEmpty()) {
+            return;
+        }
+        for (CirculationEvent event : circulationEventRepository.findByIds(List.copyOf(skippedIds.keySet()))) {
+            current.apply(event);
+            skippedIds.remove(event.id());
+            log.debug("Boşluk olarak atlanan olay geç uygulandı, olay ID: {}", event.id());
+        }
+        long now = System.nanoTime();
+        skippedIds.values().removeIf(skippedAt -> now - skippedAt >= gapRetention.toNanos());
+    }
+
+    // [fromId, toId) aralığındaki id'ler sonraki poll'larda yeniden sorgulanmak üzere saklanır
+    private void skip(long fromId, long toId) {
+        long now = System.nanoTime();
+        for (long id = fromId; id < toId; id++) {
+            skippedIds.put(id, now);
+        }
+    }
+
+    private boolean gapExpired() {
+        long now = System.nanoTime();
+        if (gapDetectedAt < 0) {
+            gapDetectedAt = now;
+            return false;
+        }
+        if (now - gapDetectedAt < gapTimeout.toNanos()) {
+            return false;
+        }
+        log.debug("Olay defterindeki boşluk {} sonra atlandı, son olay ID: {} (geç gelirse {} boyunca uygulanır)",
+                gapTimeout, state.lastEventId, gapRetention);
+        return true;
+    }
+
+    // Okuyucular haritaları kilitsiz okur; yazan tek iş parçacığı poll/reseed'dir
+    private static final class State {
+
+        private final Map<Long, BookLoan> loansByBook = new ConcurrentHashMap<>();
+        private final Map<Long, Set<Long>> booksByUser = new ConcurrentHashMap<>();
+        private volatile long lastEventId;
+
+        private State(long lastEventId) {
+            this.lastEventId = lastEventId;
+        }
+
+        private void advance(CirculationEvent event) {
+            apply(event);
+            lastEventId = event.id();
+        }
+
+        private void apply(CirculationEvent event) {
+            switch (event.type()) {
+                case BORROWED -> borrow(event.bookId(), event.userId(), false);
+                case RETURNED -> giveBack(event.bookId(), event.userId());
+                case MARKED_LOST -> loansByBook.computeIfPresent(event.bookId(),
+                        (bookId, loan) -> new BookLoan(loan.userId(), true));
+                case PRIVILEGE_CHANGED -> {
+                    // Sadece denetim kaydı; projeksiyonlar etkilenmez
+                }
+            }
+        }
+
+        private void borrow(Long bookId, Long userId, boolean lost) {
+            BookLoan previous = loansByBook.put(bookId, new BookLoan(userId, lost));
+            if (previous != null && !previous.userId().equals(userId)) {
+                removeUserBook(previous.userId(), bookId);
+            }
+            booksByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(bookId);
+        }
+
+        private void giveBack(Long bookId, Long userId) {
+            // Kitap başka birine geçmişse (aynı olay tekrar uygulandı) sadece bu kullanıcının kaydı silinir
+            BookLoan current = loansByBook.get(bookId);
+            if (current != null && current.userId().equals(userId)) {
+                loansByBook.remove(bookId, current);
+            }
+            removeUserBook(userId, bookId);
+        }
+
+        private void removeUserBook(Long userId, Long bookId) {
+            booksByUser.computeIfPresent(userId, (id, bookIds) -> {
+                bookIds.remove(bookId);
+                return bookIds.isEmpty() ? null : bookIds;
+            });
+        }
+    }
+}
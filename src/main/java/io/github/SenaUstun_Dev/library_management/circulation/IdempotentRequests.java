@@ -0,0 +1,202 @@
+package io.github.SenaUstun_Dev.library_management.circulation;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.SenaUstun_Dev.library_management.exception.BaseException;
+import io.github.SenaUstun_Dev.library_management.exception.ErrorMessages;
+import io.github.SenaUstun_Dev.library_management.repository.IdempotencyKeyRepository;
+import io.github.SenaUstun_Dev.library_management.repository.IdempotencyKeyRepository.StoredRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Idempotency-Key başlığı ile gelen ödünç/iade isteklerini bir kez çalıştırır; aynı anahtarla gelen tekrar,
+ * işlemi yeniden çalıştırmadan ilk yanıtı alır.
+ * <p>
+ * Anahtar önce idempotency_keys tablosunda PENDING olarak sahiplenilir. İşlem ve yanıtın JSON olarak kaydı aynı
+ * transaction'da çalışır: işlem commit olduysa yanıt da kaydedilmiştir, yanıt kaydedilemezse işlem de geri alınır.
+ * Kayıt TTL süresince tutulur. İşlem hata verirse anahtar serbest bırakılır (hatalar saklanmaz).
+ * Tamamlanan yanıtlar boyutu sınırlı bir LRU önbellekte de tutulur; tekrarlar çoğunlukla veritabanına hiç gitmez.
+ * Yarıda kalan (ör. sunucu kapanması) PENDING kayıtlar pending-lease süresi dolunca yeniden sahiplenilebilir.
+ */
+@Component
+@Slf4j
+public class IdempotentRequests {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String CACHE_NAME = "idempotentResponses";
+
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BASE_DELAY_MS = 20;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate actionTransaction;
+    private final Duration ttl;
+    private final Duration pendingLease;
+    private final Cache<CacheKey, CompletedRequest> completed;
+
+    public IdempotentRequests(IdempotencyKeyRepository idempotencyKeyRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${library.idempotency.ttl}") Duration ttl,
+                              @Value("${library.idempotency.pending-lease}") Duration pendingLease,
+                              @Value("${library.idempotency.cache.maximum-size}") long maximumSize,
+                              MeterRegistry meterRegistry) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.actionTransaction = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.pendingLease = pendingLease;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, CACHE_NAME);
+    }
+
+    public record Result<T>(T body, boolean replayed) {
+    }
+
+    private record CacheKey(Long userId, String key) {
+    }
+
+    private record CompletedRequest(String fingerprint, Object body) {
+    }
+
+    /**
+     * İşlemi anahtar başına bir kez çalıştırır. Anahtar yoksa (başlık gönderilmemiş) işlem doğrudan çalışır.
+     * Anahtar varsa işlem, yanıtın kaydedildiği transaction'a katılır; işlemin kendi transaction'ı yoksa bu transaction
+     * geçici hatalarda (deadlock, kilit çakışması) baştan tekrar denenir.
+     *
+     * @param fingerprint isteği tanımlayan değer (ör. "borrow:42"); aynı anahtar farklı bir istekle kullanılamaz
+     */
+    public <T> Result<T> execute(Long userId, String key, String fingerprint, Class<T> type, Supplier<T> action) {
+        if (key == null) {
+            return new Result<>(action.get(), false);
+        }
+        validateKey(key);
+        CacheKey cacheKey = new CacheKey(userId, key);
+
+        CompletedRequest cached = completed.getIfPresent(cacheKey);
+        if (cached != null) {
+            requireSameRequest(cached.fingerprint(), fingerprint);
+            return new Result<>(type.cast(cached.body()), true);
+        }
+
+        if (!idempotencyKeyRepository.claim(userId, key, fingerprint, pendingLease)) {
+            return new Result<>(replay(cacheKey, fingerprint, type), true);
+        }
+
+        T body;
+        try {
+            body = runAndComplete(userId, key, action);
+        } catch (RuntimeException e) {
+            idempotencyKeyRepository.release(userId, key);
+            throw e;
+        }
+        completed.put(cacheKey, new CompletedRequest(fingerprint, body));
+        return new Result<>(body, false);
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private <T> T runAndComplete(Long userId, String key, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return actionTransaction.execute(status -> {
+                    T body = action.get();
+                    // Bekleyen kayıt yoksa (pending-lease dolup temizlendi) işlem geri alınır; yanıtı kaydedilmeyen bir
+                    // işlem commit olursa aynı anahtarla gelen tekrar işlemi ikinci kez çalıştırırdı
+                    if (!idempotencyKeyRepository.complete(userId, key, toJson(body), ttl)) {
+                        throw new BaseException(HttpStatus.CONFLICT, ErrorMessages.REQUEST_IN_PROGRESS,
+                                "Bu anahtarla gönderilen isteğin işlenme süresi doldu, lütfen tekrar deneyin.");
+                    }
+                    return body;
+                });
+            } catch (TransientDataAccessException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Idempotent istek geçici bir hata nedeniyle tekrar deneniyor (deneme {}/{})", attempt, MAX_ATTEMPTS, e);
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(RETRY_BASE_DELAY_MS * attempt, RETRY_BASE_DELAY_MS * attempt * 2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BaseException(HttpStatus.SERVICE_UNAVAILABLE, ErrorMessages.UNEXPECTED_ERROR, "İstek işlenirken kesildi.");
+        }
+    }
+
+    private <T> T replay(CacheKey cacheKey, String fingerprint, Class<T> type) {
+        // Anahtar alınamadı: kayıt başka bir istek tarafından işleniyor ya da tamamlanmış
+        Optional<StoredRequest> stored = idempotencyKeyRepository.find(cacheKey.userId(), cacheKey.key());
+        if (stored.isEmpty()) {
+            // Arada serbest bırakıldı veya süresi doldu; istemci tekrar deneyebilir
+            throw new BaseException(HttpStatus.CONFLICT, ErrorMessages.REQUEST_IN_PROGRESS,
+                    "Bu anahtarla gönderilen istek henüz sonuçlanmadı, lütfen tekrar deneyin.");
+        }
+        requireSameRequest(stored.get().fingerprint(), fingerprint);
+        if (!stored.get().completed()) {
+            throw new BaseException(HttpStatus.CONFLICT, ErrorMessages.REQUEST_IN_PROGRESS,
+                    "Bu anahtarla gönderilen istek hâlâ işleniyor.");
+        }
+        T body = fromJson(stored.get().responseBody(), type);
+        completed.put(cacheKey, new CompletedRequest(fingerprint, body));
+        return body;
+    }
+
+    private void validateKey(String key) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BaseException(HttpStatus.BAD_REQUEST,
+                    HEADER + " başlığı boş olamaz ve en fazla " + MAX_KEY_LENGTH + " karakter olabilir.");
+        }
+    }
+
+    private void requireSameRequest(String storedFingerprint, String fingerprint) {
+        if (!storedFingerprint.equals(fingerprint)) {
+            throw new BaseException(HttpStatus.UNPROCESSABLE_ENTITY, ErrorMessages.IDEMPOTENCY_KEY_REUSED,
+                    "Bu " + HEADER + " farklı bir istek için kullanılmış.");
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Idempotent yanıt JSON'a çevrilemedi", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Kaydedilmiş idempotent yanıt okunamadı", e);
+        }
+    }
+}
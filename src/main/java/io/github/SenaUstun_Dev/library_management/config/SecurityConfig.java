@@ -1,6 +1,7 @@
 package io.github.SenaUstun_Dev.library_management.config;
 
 import io.github.SenaUstun_Dev.library_management.auth.jwt_filter.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -42,13 +43,15 @@ public class SecurityConfig {
             "/api/books/admin/**",
             "/api/authors/admin/**",
             "/api/genres/admin/**",
-            "/api/publishers/admin/**"
+            "/api/publishers/admin/**",
+            "/actuator/**"
     };
 
     private static final String[] PUBLIC_ENDPOINTS = {
             "/api/auth/**",
             "/api/books/search/**",
             "/api/books",
+            "/api/books/stream",
             "/api/books/{id}",
             "/api/authors",
             "/api/authors/{id}",
@@ -68,8 +71,11 @@ public class SecurityConfig {
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
 //                        .requestMatchers("/**").permitAll()
+                        // Akış (StreamingResponseBody) yanıtlarının async dispatch'i; istek ilk dispatch'te zaten yetkilendirildi
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(SWAGGER_WHITELIST).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
                         .requestMatchers(ADMIN_ENDPOINTS).hasRole("ADMIN")
                         .requestMatchers(PUBLIC_ENDPOINTS).hasAnyRole("USER","ADMIN")
                         .anyRequest().authenticated())
@@ -4,6 +4,7 @@ import io.github.SenaUstun_Dev.library_management.dto.request.CreateAuthorReques
 import io.github.SenaUstun_Dev.library_management.dto.request.UpdateAuthorRequest;
 import io.github.SenaUstun_Dev.library_management.dto.response.AuthorResponse;
 import io.github.SenaUstun_Dev.library_management.dto.response.ErrorResponse;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
 import io.github.SenaUstun_Dev.library_management.service.AuthorService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,6 +19,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -100,6 +102,7 @@ public class AuthorController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Author found",
                     content = @Content(schema = @Schema(implementation = AuthorResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Author not modified (ETag / Last-Modified matched)"),
             @ApiResponse(responseCode = "404", description = "Author not found",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "500", description = "Internal server error",
@@ -108,7 +111,12 @@ public class AuthorController {
     @GetMapping("/{id}")
     public ResponseEntity<AuthorResponse> getAuthorById(
             @Parameter(description = "ID of the author to retrieve")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest webRequest) {
+        ResourceVersion version = authorService.findAuthorVersion(id);
+        if (webRequest.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+            return null;
+        }
         AuthorResponse response = authorService.findAuthorById(id);
         return ResponseEntity.ok(response);
     }
@@ -118,11 +126,17 @@ public class AuthorController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Authors listed successfully",
                     content = @Content(array = @ArraySchema(schema = @Schema(implementation = AuthorResponse.class)))),
+            @ApiResponse(responseCode = "304", description = "Author list not modified (ETag / Last-Modified matched)"),
             @ApiResponse(responseCode = "500", description = "Internal server error",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @GetMapping
-    public ResponseEntity<List<AuthorResponse>> getAllAuthors() {
+    public ResponseEntity<List<AuthorResponse>> getAllAuthors(WebRequest webRequest) {
+        // Liste sürümü değişmediyse 304 döner, liste hiç yüklenmez
+        ResourceVersion version = authorService.findAllAuthorsVersion();
+        if (webRequest.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+            return null;
+        }
         List<AuthorResponse> response = authorService.findAllAuthors();
         return ResponseEntity.ok(response);
     }
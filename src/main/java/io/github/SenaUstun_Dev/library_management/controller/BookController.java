@@ -1,8 +1,14 @@
 package io.github.SenaUstun_Dev.library_management.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Set;
 
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,10 +20,25 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.SenaUstun_Dev.library_management.dto.request.BookFacetSearchRequest;
+import io.github.SenaUstun_Dev.library_management.dto.request.BookSortField;
 import io.github.SenaUstun_Dev.library_management.dto.request.CreateBookRequest;
 import io.github.SenaUstun_Dev.library_management.dto.request.UpdateBookRequest;
+import io.github.SenaUstun_Dev.library_management.dto.response.BookFacetSearchResponse;
 import io.github.SenaUstun_Dev.library_management.dto.response.BookResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.BulkBookCreateResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.CursorPageResponse;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import io.github.SenaUstun_Dev.library_management.exception.BaseException;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
+import io.github.SenaUstun_Dev.library_management.service.BookBulkImportService;
 import io.github.SenaUstun_Dev.library_management.service.BookExportService;
 import io.github.SenaUstun_Dev.library_management.service.BookService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -36,25 +57,93 @@ public class BookController {
 
     private final BookService bookService;
     private final BookExportService bookExportService;
+    private final BookBulkImportService bookBulkImportService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    @Operation(summary = "Tüm kitapları listele", description = "Mevcut tüm kitapların listesini döndürür.")
+    @Operation(
+            summary = "Kitapları sayfalı listele",
+            description = "Kitapları imleç (keyset) tabanlı sayfalama ile döndürür. Sonraki sayfa için yanıttaki nextCursor değeri cursor parametresine verilir."
+    )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Kitaplar başarıyla getirildi"),
+            @ApiResponse(responseCode = "400", description = "Geçersiz sayfa boyutu veya imleç"),
     })
-    public ResponseEntity<List<BookResponse>> findAllBooks() {
-        List<BookResponse> response = bookService.findAll();
+    public ResponseEntity<CursorPageResponse<BookResponse>> findAllBooks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "ID") BookSortField sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        CursorPageResponse<BookResponse> response = bookService.findAll(cursor, size, sort, direction);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Tüm kataloğu akış olarak getir",
+            description = "Tüm kitapları id sırasıyla, her satırda bir JSON nesnesi olacak şekilde (NDJSON) akıtır. Toplu senkronizasyon işleri için tasarlanmıştır."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Kitaplar akış olarak gönderiliyor"),
+    })
+    public ResponseEntity<StreamingResponseBody> streamAllBooks() {
+        StreamingResponseBody body = bookService::streamAllBooks;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "ID'ye göre kitap getir", description = "Belirtilen ID'ye sahip kitabı getirir.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Kitap başarıyla getirildi"),
+            @ApiResponse(responseCode = "304", description = "Kitap değişmedi (ETag / Last-Modified eşleşti)"),
             @ApiResponse(responseCode = "404", description = "Kitap bulunamadı"),
     })
-    public ResponseEntity<BookResponse> findBookById(@PathVariable Long id) {
-        BookResponse response = bookService.findBookById(id);
+    public ResponseEntity<BookResponse> findBookById(@PathVariable Long id, WebRequest webRequest,
+                                                     HttpServletResponse servletResponse) {
+        // If-None-Match / If-Modified-Since eşleşirse 304 döner, DTO hiç oluşturulmaz
+        ResourceVersion version = bookService.findBookVersion(id);
+        if (webRequest.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+            return null;
+        }
+        // Gövde önbellekten, sadece sürümü ETag ile eşleşiyorsa kullanılır; eşleşmiyorsa veritabanından okunur
+        BookService.VersionedBook current = bookService.findBookWithVersion(id, version);
+        if (!current.version().equals(version)) {
+            // Sürüm kontrolü ile gövde okuması arasında kitap güncellendi; başlıklar gövdenin sürümüyle yeniden yazılır
+            servletResponse.setHeader(HttpHeaders.ETAG, "\"" + current.version().eTag() + "\"");
+            servletResponse.setDateHeader(HttpHeaders.LAST_MODIFIED, current.version().lastModifiedMillis());
+        }
+        return ResponseEntity.ok(current.book());
+    }
+
+    @GetMapping("/search")
+    @Operation(
+            summary = "Birleşik kitap araması (facet'li)",
+            description = "Yazar metni, tür id'leri, yayıncı id'leri ve durum kriterlerinin herhangi bir kombinasyonuyla arar. " +
+                    "Eşleşen kitaplarla birlikte toplam sayıyı ve tür/yayıncı/durum bazında kitap sayılarını döndürür. " +
+                    "Sonraki sayfa için yanıttaki nextAfterId değeri afterId parametresine verilir."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Arama başarıyla tamamlandı"),
+            @ApiResponse(responseCode = "400", description = "Geçersiz sayfa boyutu veya parametre"),
+    })
+    public ResponseEntity<BookFacetSearchResponse> searchBooksWithFacets(
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) Set<Long> genreIds,
+            @RequestParam(required = false) Set<Long> publisherIds,
+            @RequestParam(required = false) BookStatus status,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size) {
+        BookFacetSearchRequest request = BookFacetSearchRequest.builder()
+                .author(author)
+                .genreIds(genreIds)
+                .publisherIds(publisherIds)
+                .status(status)
+                .afterId(afterId)
+                .size(size)
+                .build();
+        BookFacetSearchResponse response = bookService.searchBooksWithFacets(request);
         return ResponseEntity.ok(response);
     }
 
@@ -102,6 +191,21 @@ public class BookController {
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/search/text")
+    @Operation(
+            summary = "Kitap adı, yazar, yayıncı ve türde metin araması",
+            description = "Sorgudaki her kelime önek olarak eşleşmelidir (örn. \"suç ceza dost\"). Büyük/küçük harf ve aksan farkı gözetilmez. Sonuçlar ilgi puanına göre sıralanır."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Kitaplar başarıyla getirildi"),
+            @ApiResponse(responseCode = "400", description = "Geçersiz sonuç limiti"),
+    })
+    public ResponseEntity<List<BookResponse>> searchBooks(@RequestParam String q,
+                                                          @RequestParam(defaultValue = "20") int limit) {
+        List<BookResponse> response = bookService.searchBooks(q, limit);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/admin/status/lost")
     @Operation(summary = "Kayıp durumdaki kitapları listele", description = "Kayıp olarak işaretlenen kitapları listeler. Admin rolü gerektirir.")
     @ApiResponses(value = {
@@ -155,6 +259,43 @@ public class BookController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/admin/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Toplu kitap oluştur (JSON dizi)",
+            description = "Bir JSON dizisi içindeki kitapları toplu olarak oluşturur. Admin rolü gerektirir. " +
+                    "Her kayıt için ayrı sonuç (oluşturulan id veya hata) ve saniye başına eklenen satır sayısı döner."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "İşlem tamamlandı, kayıt bazlı sonuçlar yanıtta"),
+            @ApiResponse(responseCode = "400", description = "Boş veya çok büyük istek"),
+            @ApiResponse(responseCode = "403", description = "Erişim reddedildi (admin rolü gerekli)"),
+    })
+    public ResponseEntity<BulkBookCreateResponse> addBooksInBulk(@RequestBody List<CreateBookRequest> requests) {
+        BulkBookCreateResponse response = bookBulkImportService.addBooks(requests);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping(value = "/admin/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Toplu kitap oluştur (NDJSON)",
+            description = "Her satırında bir kitap JSON nesnesi bulunan (application/x-ndjson) gövdedeki kitapları toplu olarak oluşturur. Admin rolü gerektirir."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "İşlem tamamlandı, kayıt bazlı sonuçlar yanıtta"),
+            @ApiResponse(responseCode = "400", description = "Okunamayan satır, boş veya çok büyük istek"),
+            @ApiResponse(responseCode = "403", description = "Erişim reddedildi (admin rolü gerekli)"),
+    })
+    public ResponseEntity<BulkBookCreateResponse> addBooksInBulkFromNdjson(InputStream body) throws IOException {
+        List<CreateBookRequest> requests;
+        try (MappingIterator<CreateBookRequest> lines = objectMapper.readerFor(CreateBookRequest.class).readValues(body)) {
+            requests = lines.readAll();
+        } catch (JacksonException e) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, "NDJSON body could not be parsed: " + e.getOriginalMessage());
+        }
+        BulkBookCreateResponse response = bookBulkImportService.addBooks(requests);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/admin/{id}")
     @Operation(
             summary = "Mevcut bir kitabı güncelle", 
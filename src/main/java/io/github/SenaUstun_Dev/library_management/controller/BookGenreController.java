@@ -3,6 +3,7 @@ package io.github.SenaUstun_Dev.library_management.controller;
 import io.github.SenaUstun_Dev.library_management.dto.request.CreateBookGenreRequest;
 import io.github.SenaUstun_Dev.library_management.dto.request.UpdateBookGenreRequest;
 import io.github.SenaUstun_Dev.library_management.dto.response.BookGenreResponse;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
 import io.github.SenaUstun_Dev.library_management.service.BookGenreService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,6 +14,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -28,8 +30,14 @@ public class BookGenreController {
     @Operation(summary = "List all book genres", description = "Returns a list of all available book genres.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Genres retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Genre list not modified (ETag / Last-Modified matched)"),
     })
-    public ResponseEntity<List<BookGenreResponse>> findAllBookGenres() {
+    public ResponseEntity<List<BookGenreResponse>> findAllBookGenres(WebRequest webRequest) {
+        // Liste sürümü değişmediyse 304 döner, liste hiç yüklenmez
+        ResourceVersion version = bookGenreService.findAllBookGenresVersion();
+        if (webRequest.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+            return null;
+        }
         List<BookGenreResponse> response = bookGenreService.findAllBookGenres();
         return ResponseEntity.ok(response);
     }
@@ -38,9 +46,14 @@ public class BookGenreController {
     @Operation(summary = "Get book genre by ID", description = "Retrieves the book genre with the specified ID.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Book genre retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Book genre not modified (ETag / Last-Modified matched)"),
             @ApiResponse(responseCode = "404", description = "Book genre not found"),
     })
-    public ResponseEntity<BookGenreResponse> findBookGenreById(@PathVariable Long id) {
+    public ResponseEntity<BookGenreResponse> findBookGenreById(@PathVariable Long id, WebRequest webRequest) {
+        ResourceVersion version = bookGenreService.findBookGenreVersion(id);
+        if (webRequest.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+            return null;
+        }
         BookGenreResponse response = bookGenreService.findBookGenreById(id);
         return ResponseEntity.ok(response);
     }
@@ -0,0 +1,85 @@
+package io.github.SenaUstun_Dev.library_management.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.github.SenaUstun_Dev.library_management.auth.UserDetailsImpl;
+import io.github.SenaUstun_Dev.library_management.dto.response.BookHoldResponse;
+import io.github.SenaUstun_Dev.library_management.service.BookHoldService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/holds")
+@RequiredArgsConstructor
+@Tag(name = "Bekleme Sırası", description = "Ödünçteki kitaplar için sıraya girme işlemleri")
+public class BookHoldController {
+
+    private final BookHoldService bookHoldService;
+
+    @Operation(summary = "Sıraya girme", description = "Ödünçteki kitap için bekleme sırasına girer. Kitap iade edildiğinde sıradaki ilk uygun kullanıcıya otomatik olarak ödünç verilir")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Sıraya girildi"),
+            @ApiResponse(responseCode = "400", description = "Kitap müsait, kayıp veya kullanıcı zaten sırada / kitap zaten kullanıcıda"),
+            @ApiResponse(responseCode = "403", description = "Ödünç alma izni yok"),
+            @ApiResponse(responseCode = "404", description = "Kitap bulunamadı")
+    })
+    @PostMapping("/books/{bookId}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<BookHoldResponse> placeHold(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @PathVariable Long bookId) {
+        BookHoldResponse response = bookHoldService.placeHold(userDetails.getUser(), bookId);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @Operation(summary = "Sıradaki yer", description = "Kullanıcının kitap için sıradaki yerini ve sıra uzunluğunu döndürür")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sıra bilgisi döndürüldü"),
+            @ApiResponse(responseCode = "404", description = "Kullanıcı bu kitap için sırada değil")
+    })
+    @GetMapping("/books/{bookId}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<BookHoldResponse> getHold(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @PathVariable Long bookId) {
+        return ResponseEntity.ok(bookHoldService.getHold(userDetails.getUser(), bookId));
+    }
+
+    @Operation(summary = "Sıradan çıkma", description = "Kullanıcının kitap için bekleme kaydını siler")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Sıradan çıkıldı"),
+            @ApiResponse(responseCode = "404", description = "Kullanıcı bu kitap için sırada değil")
+    })
+    @DeleteMapping("/books/{bookId}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<Void> cancelHold(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @PathVariable Long bookId) {
+        bookHoldService.cancelHold(userDetails.getUser(), bookId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Bekleme kayıtlarım", description = "Kullanıcının girdiği tüm sıraları, sıradaki yerleriyle listeler")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Kayıtlar listelendi")
+    })
+    @GetMapping
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<List<BookHoldResponse>> getHolds(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return ResponseEntity.ok(bookHoldService.getHolds(userDetails.getUser()));
+    }
+}
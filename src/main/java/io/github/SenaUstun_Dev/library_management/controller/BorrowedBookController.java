@@ -1,7 +1,9 @@
 package io.github.SenaUstun_Dev.library_management.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -10,12 +12,22 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import io.github.SenaUstun_Dev.library_management.auth.UserDetailsImpl;
+import io.github.SenaUstun_Dev.library_management.circulation.IdempotentRequests;
+import io.github.SenaUstun_Dev.library_management.dto.request.BatchCirculationRequest;
 import io.github.SenaUstun_Dev.library_management.dto.request.BorrowBookRequest;
+import io.github.SenaUstun_Dev.library_management.dto.request.LoanHistoryRequest;
+import io.github.SenaUstun_Dev.library_management.dto.response.ActiveLoanSummaryResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.BatchCirculationResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.BookAvailabilityResponse;
 import io.github.SenaUstun_Dev.library_management.dto.response.BorrowedBookResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.CursorPageResponse;
+import io.github.SenaUstun_Dev.library_management.entity.AppUser;
 import io.github.SenaUstun_Dev.library_management.service.BorrowedBookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -30,34 +42,76 @@ import lombok.RequiredArgsConstructor;
 public class BorrowedBookController {
 
     private final BorrowedBookService borrowedBookService;
+    private final IdempotentRequests idempotentRequests;
 
     @Operation(summary = "Kitap ödünç alma", description = "Kullanıcının kitabı ödünç almasını sağlar")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "201", description = "Kitap başarıyla ödünç alındı"),
+            @ApiResponse(responseCode = "201", description = "Kitap başarıyla ödünç alındı (tekrar edilen istekte ilk yanıt, Idempotent-Replayed: true ile)"),
             @ApiResponse(responseCode = "400", description = "Geçersiz istek (maksimum kitap sınırı aşıldı veya kitap ödünç alınamaz)"),
             @ApiResponse(responseCode = "403", description = "Ödünç alma izni yok"),
-            @ApiResponse(responseCode = "404", description = "Kitap bulunamadı")
+            @ApiResponse(responseCode = "404", description = "Kitap bulunamadı"),
+            @ApiResponse(responseCode = "409", description = "Aynı Idempotency-Key ile gönderilen istek hâlâ işleniyor"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key farklı bir istek için kullanılmış")
     })
     @PostMapping
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     public ResponseEntity<BorrowedBookResponse> borrowBook(
             @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey,
             @RequestBody BorrowBookRequest request) {
-        BorrowedBookResponse response = borrowedBookService.borrowBook(userDetails.getUser(), request);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+        AppUser user = userDetails.getUser();
+        IdempotentRequests.Result<BorrowedBookResponse> result = idempotentRequests.execute(
+                user.getId(), idempotencyKey, "borrow:" + request.bookId(), BorrowedBookResponse.class,
+                () -> borrowedBookService.borrowBook(user, request));
+        return withReplayHeader(ResponseEntity.status(HttpStatus.CREATED), result);
     }
     
     @Operation(summary = "Kitap iade etme", description = "Kullanıcının ödünç aldığı kitabı iade etmesini sağlar")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Kitap başarıyla iade edildi"),
-            @ApiResponse(responseCode = "404", description = "Kitap bulunamadı veya sizin tarafınızdan ödünç alınmamış")
+            @ApiResponse(responseCode = "200", description = "Kitap başarıyla iade edildi (tekrar edilen istekte ilk yanıt, Idempotent-Replayed: true ile)"),
+            @ApiResponse(responseCode = "404", description = "Kitap bulunamadı veya sizin tarafınızdan ödünç alınmamış"),
+            @ApiResponse(responseCode = "409", description = "Aynı Idempotency-Key ile gönderilen istek hâlâ işleniyor"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key farklı bir istek için kullanılmış")
     })
     @PostMapping("/{bookId}/return")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     public ResponseEntity<BorrowedBookResponse> returnBook(
             @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestHeader(name = IdempotentRequests.HEADER, required = false) String idempotencyKey,
             @PathVariable Long bookId) {
-        BorrowedBookResponse response = borrowedBookService.returnBook(userDetails.getUser(), bookId);
+        AppUser user = userDetails.getUser();
+        IdempotentRequests.Result<BorrowedBookResponse> result = idempotentRequests.execute(
+                user.getId(), idempotencyKey, "return:" + bookId, BorrowedBookResponse.class,
+                () -> borrowedBookService.returnBook(user, bookId));
+        return withReplayHeader(ResponseEntity.ok(), result);
+    }
+
+    @Operation(summary = "Toplu kitap ödünç alma", description = "Sepetteki kitapları tek işlemde ödünç verir. Her kitap için ayrı sonuç döner; müsait olmayan kitaplar diğerlerini engellemez")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sepet işlendi (kitap bazında sonuçlar yanıtta)"),
+            @ApiResponse(responseCode = "400", description = "Sepet boş veya çok büyük"),
+            @ApiResponse(responseCode = "403", description = "Ödünç alma izni yok")
+    })
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<BatchCirculationResponse> checkoutBooks(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestBody BatchCirculationRequest request) {
+        BatchCirculationResponse response = borrowedBookService.checkoutBooks(userDetails.getUser(), request);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Toplu kitap iade etme", description = "Sepetteki kitapları tek işlemde iade alır. Her kitap için ayrı sonuç döner")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sepet işlendi (kitap bazında sonuçlar yanıtta)"),
+            @ApiResponse(responseCode = "400", description = "Sepet boş veya çok büyük")
+    })
+    @PostMapping("/batch/return")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<BatchCirculationResponse> checkinBooks(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestBody BatchCirculationRequest request) {
+        BatchCirculationResponse response = borrowedBookService.checkinBooks(userDetails.getUser(), request);
         return ResponseEntity.ok(response);
     }
 
@@ -72,14 +126,46 @@ public class BorrowedBookController {
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "Kullanıcının ödünç kitap geçmişi", description = "Kullanıcının daha önce ödünç aldığı kitapları listeler")
+    @Operation(summary = "Kullanıcının açık ödünç özeti", description = "Kullanıcının açık ödünç sayısını, kalan hakkını ve kitap ID'lerini bellek içi dolaşım projeksiyonundan döndürür. Yanıt en fazla birkaç yüz milisaniye geriden gelebilir; asOfEventId dayandığı son olayı gösterir")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Kitaplar başarıyla listelendi")
+            @ApiResponse(responseCode = "200", description = "Özet başarıyla getirildi"),
+            @ApiResponse(responseCode = "503", description = "Dolaşım projeksiyonu henüz yüklenmedi")
+    })
+    @GetMapping("/current/summary")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<ActiveLoanSummaryResponse> getActiveLoanSummary(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        ActiveLoanSummaryResponse response = borrowedBookService.getActiveLoanSummary(userDetails.getUser());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Kitabın ödünç durumu", description = "Kitabın müsait olup olmadığını ve bekleme sırasının uzunluğunu bellek içi dolaşım projeksiyonundan döndürür")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Durum başarıyla getirildi"),
+            @ApiResponse(responseCode = "404", description = "Kitap bulunamadı"),
+            @ApiResponse(responseCode = "503", description = "Dolaşım projeksiyonu henüz yüklenmedi")
+    })
+    @GetMapping("/availability/{bookId}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public ResponseEntity<BookAvailabilityResponse> getBookAvailability(@PathVariable Long bookId) {
+        BookAvailabilityResponse response = borrowedBookService.getBookAvailability(bookId);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Kullanıcının ödünç kitap geçmişi", description = "Kullanıcının daha önce ödünç aldığı kitapları yeniden eskiye, sayfa sayfa listeler. from/to ödünç alma tarihine uygulanır; sonraki sayfa için yanıttaki nextCursor değeri cursor parametresine verilir")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Kitaplar başarıyla listelendi"),
+            @ApiResponse(responseCode = "400", description = "Geçersiz sayfa boyutu, tarih aralığı veya imleç")
     })
     @GetMapping("/history")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public ResponseEntity<List<BorrowedBookResponse>> getBorrowedBookHistory(@AuthenticationPrincipal UserDetailsImpl userDetails) {
-        List<BorrowedBookResponse> response = borrowedBookService.getBorrowedBookHistory(userDetails.getUser());
+    public ResponseEntity<CursorPageResponse<BorrowedBookResponse>> getBorrowedBookHistory(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageResponse<BorrowedBookResponse> response = borrowedBookService.getBorrowedBookHistory(
+                userDetails.getUser(), historyRequest(from, to, cursor, size));
         return ResponseEntity.ok(response);
     }
 
@@ -95,26 +181,55 @@ public class BorrowedBookController {
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "[ADMIN] Kullanıcının ödünç kitap geçmişi", description = "Belirtilen kullanıcının daha önce ödünç aldığı kitapları listeler")
+    @Operation(summary = "[ADMIN] Kullanıcının ödünç kitap geçmişi", description = "Belirtilen kullanıcının daha önce ödünç aldığı kitapları yeniden eskiye, sayfa sayfa listeler")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Kitaplar başarıyla listelendi"),
-            @ApiResponse(responseCode = "404", description = "Kullanıcı bulunamadı")
+            @ApiResponse(responseCode = "404", description = "Kullanıcı bulunamadı"),
+            @ApiResponse(responseCode = "400", description = "Geçersiz sayfa boyutu, tarih aralığı veya imleç")
     })
     @GetMapping("/admin/users/{userId}/history")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<BorrowedBookResponse>> getUserBorrowedBookHistory(@PathVariable Long userId) {
-        List<BorrowedBookResponse> response = borrowedBookService.getUserBorrowedBookHistory(userId);
+    public ResponseEntity<CursorPageResponse<BorrowedBookResponse>> getUserBorrowedBookHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageResponse<BorrowedBookResponse> response = borrowedBookService.getUserBorrowedBookHistory(
+                userId, historyRequest(from, to, cursor, size));
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "[ADMIN] Kayıp kitapları görüntüleme", description = "Kayıp olarak işaretlenen tüm kitapları listeler")
+    @Operation(summary = "[ADMIN] Kayıp kitapları görüntüleme", description = "Kayıp olarak işaretlenen kitapları yeniden eskiye, sayfa sayfa listeler")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Kayıp kitaplar başarıyla listelendi")
+            @ApiResponse(responseCode = "200", description = "Kayıp kitaplar başarıyla listelendi"),
+            @ApiResponse(responseCode = "400", description = "Geçersiz sayfa boyutu, tarih aralığı veya imleç")
     })
     @GetMapping("/admin/lost")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<BorrowedBookResponse>> getAllLostBooks() {
-        List<BorrowedBookResponse> response = borrowedBookService.getAllLostBooks();
+    public ResponseEntity<CursorPageResponse<BorrowedBookResponse>> getAllLostBooks(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageResponse<BorrowedBookResponse> response = borrowedBookService.getAllLostBooks(historyRequest(from, to, cursor, size));
         return ResponseEntity.ok(response);
     }
+
+    private LoanHistoryRequest historyRequest(LocalDate from, LocalDate to, String cursor, int size) {
+        return LoanHistoryRequest.builder()
+                .from(from)
+                .to(to)
+                .cursor(cursor)
+                .size(size)
+                .build();
+    }
+
+    // Tekrar edilen istekte yanıt aynıdır, sadece Idempotent-Replayed başlığı eklenir
+    private <T> ResponseEntity<T> withReplayHeader(ResponseEntity.BodyBuilder builder, IdempotentRequests.Result<T> result) {
+        if (result.replayed()) {
+            builder.header(IdempotentRequests.REPLAYED_HEADER, "true");
+        }
+        return builder.body(result.body());
+    }
 } 
\ No newline at end of file
@@ -4,6 +4,7 @@ import io.github.SenaUstun_Dev.library_management.dto.request.CreatePublisherReq
 import io.github.SenaUstun_Dev.library_management.dto.request.UpdatePublisherRequest;
 import io.github.SenaUstun_Dev.library_management.dto.response.PublisherResponse;
 import io.github.SenaUstun_Dev.library_management.dto.response.ErrorResponse;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
 import io.github.SenaUstun_Dev.library_management.service.PublisherService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,6 +19,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -100,6 +102,7 @@ public class PublisherController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Publisher found",
                     content = @Content(schema = @Schema(implementation = PublisherResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Publisher not modified (ETag / Last-Modified matched)"),
             @ApiResponse(responseCode = "404", description = "Publisher not found",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "500", description = "Internal server error",
@@ -108,7 +111,12 @@ public class PublisherController {
     @GetMapping("/{id}")
     public ResponseEntity<PublisherResponse> getPublisherById(
             @Parameter(description = "ID of the publisher to retrieve")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest webRequest) {
+        ResourceVersion version = publisherService.findPublisherVersion(id);
+        if (webRequest.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+            return null;
+        }
         PublisherResponse response = publisherService.findPublisherById(id);
         return ResponseEntity.ok(response);
     }
@@ -118,11 +126,17 @@ public class PublisherController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Publishers listed successfully",
                     content = @Content(array = @ArraySchema(schema = @Schema(implementation = PublisherResponse.class)))),
+            @ApiResponse(responseCode = "304", description = "Publisher list not modified (ETag / Last-Modified matched)"),
             @ApiResponse(responseCode = "500", description = "Internal server error",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @GetMapping
-    public ResponseEntity<List<PublisherResponse>> getAllPublishers() {
+    public ResponseEntity<List<PublisherResponse>> getAllPublishers(WebRequest webRequest) {
+        // Liste sürümü değişmediyse 304 döner, liste hiç yüklenmez
+        ResourceVersion version = publisherService.findAllPublishersVersion();
+        if (webRequest.checkNotModified(version.eTag(), version.lastModifiedMillis())) {
+            return null;
+        }
         List<PublisherResponse> response = publisherService.findAllPublishers();
         return ResponseEntity.ok(response);
     }
@@ -0,0 +1,11 @@
+package io.github.SenaUstun_Dev.library_management.dto.request;
+
+import java.util.List;
+
+import lombok.Builder;
+
+@Builder
+public record BatchCirculationRequest(
+    List<Long> bookIds
+) {
+}
@@ -0,0 +1,18 @@
+package io.github.SenaUstun_Dev.library_management.dto.request;
+
+import java.util.Set;
+
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import lombok.Builder;
+
+// Boş bırakılan (null/boş) kriterler filtrelemeye katılmaz
+@Builder
+public record BookFacetSearchRequest(
+        String author,          // Yazarın takma adı, adı veya ikinci adında geçen metin
+        Set<Long> genreIds,     // Kitap bu türlerden en az birine sahip olmalı
+        Set<Long> publisherIds, // Kitap bu yayıncılardan en az birine sahip olmalı
+        BookStatus status,
+        Long afterId,           // Sayfalama: bir önceki sayfanın nextAfterId değeri
+        int size
+) {
+}
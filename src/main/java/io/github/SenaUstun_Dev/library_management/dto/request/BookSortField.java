@@ -0,0 +1,6 @@
+package io.github.SenaUstun_Dev.library_management.dto.request;
+
+public enum BookSortField {
+    ID,
+    NAME
+}
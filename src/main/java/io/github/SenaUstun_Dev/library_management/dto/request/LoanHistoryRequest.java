@@ -0,0 +1,15 @@
+package io.github.SenaUstun_Dev.library_management.dto.request;
+
+import java.time.LocalDate;
+
+import lombok.Builder;
+
+// Boş bırakılan (null) tarih sınırları filtrelemeye katılmaz; tarihler ödünç alma tarihine uygulanır
+@Builder
+public record LoanHistoryRequest(
+        LocalDate from,     // Dahil
+        LocalDate to,       // Dahil
+        String cursor,      // Sayfalama: bir önceki sayfanın nextCursor değeri
+        int size
+) {
+}
@@ -0,0 +1,14 @@
+package io.github.SenaUstun_Dev.library_management.dto.response;
+
+import java.util.List;
+
+import lombok.Builder;
+
+@Builder
+public record ActiveLoanSummaryResponse(
+        int activeLoanCount,
+        int remainingLoanSlots,
+        List<Long> bookIds,
+        long asOfEventId    // Yanıtın dayandığı son dolaşım olayı
+) {
+}
@@ -0,0 +1,14 @@
+package io.github.SenaUstun_Dev.library_management.dto.response;
+
+import java.util.List;
+
+import lombok.Builder;
+
+@Builder
+public record BatchCirculationResponse(
+        int requested,
+        int succeeded,
+        int failed,
+        List<CirculationItemResult> results     // İstekteki kitap sırasıyla
+) {
+}
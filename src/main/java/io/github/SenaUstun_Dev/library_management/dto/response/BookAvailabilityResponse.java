@@ -0,0 +1,15 @@
+package io.github.SenaUstun_Dev.library_management.dto.response;
+
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import lombok.Builder;
+
+@Builder
+public record BookAvailabilityResponse(
+        Long bookId,
+        String bookName,
+        BookStatus status,
+        boolean available,
+        int holdQueueLength,
+        long asOfEventId    // Yanıtın dayandığı son dolaşım olayı
+) {
+}
@@ -0,0 +1,19 @@
+package io.github.SenaUstun_Dev.library_management.dto.response;
+
+import java.util.List;
+import java.util.Map;
+
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import lombok.Builder;
+
+@Builder
+public record BookFacetSearchResponse(
+        List<BookResponse> content,
+        long totalCount,                    // Sayfalamadan bağımsız, eşleşen toplam kitap sayısı
+        boolean hasNext,
+        Long nextAfterId,                   // Son sayfada null
+        List<FacetCount> genres,            // Eşleşen kümedeki tür dağılımı
+        List<FacetCount> publishers,        // Eşleşen kümedeki yayıncı dağılımı
+        Map<BookStatus, Long> statuses      // Eşleşen kümedeki durum dağılımı
+) {
+}
@@ -0,0 +1,16 @@
+package io.github.SenaUstun_Dev.library_management.dto.response;
+
+import java.time.Instant;
+
+import lombok.Builder;
+
+@Builder
+public record BookHoldResponse(
+        Long id,
+        Long bookId,
+        String bookName,
+        long position,      // Sıradaki yer (1 = kitap iade edildiğinde ilk verilecek kişi)
+        long queueLength,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,17 @@
+package io.github.SenaUstun_Dev.library_management.dto.response;
+
+import java.util.List;
+
+import lombok.Builder;
+
+@Builder
+public record BulkBookCreateResponse(
+        int received,
+        int created,
+        int failed,
+        long insertedRows,      // Kitap ve ilişki (book_author/book_publisher/book_genre) satırlarının toplamı
+        long elapsedMillis,
+        double rowsPerSecond,
+        List<BulkBookResult> results
+) {
+}
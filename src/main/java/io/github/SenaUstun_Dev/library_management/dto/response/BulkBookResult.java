@@ -0,0 +1,13 @@
+package io.github.SenaUstun_Dev.library_management.dto.response;
+
+import lombok.Builder;
+
+@Builder
+public record BulkBookResult(
+        int index,      // İstek gövdesindeki sıra (0'dan başlar)
+        String name,
+        Long id,        // Oluşturulamadıysa null
+        boolean created,
+        String error    // Oluşturulduysa null
+) {
+}
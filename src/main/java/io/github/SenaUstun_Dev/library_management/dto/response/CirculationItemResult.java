@@ -0,0 +1,13 @@
+package io.github.SenaUstun_Dev.library_management.dto.response;
+
+import lombok.Builder;
+
+@Builder
+public record CirculationItemResult(
+        Long bookId,
+        boolean success,
+        BorrowedBookResponse loan,  // Başarısızsa null
+        String error,               // Başarılıysa null
+        String details
+) {
+}
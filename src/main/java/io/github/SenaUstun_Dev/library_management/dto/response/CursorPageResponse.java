@@ -0,0 +1,14 @@
+package io.github.SenaUstun_Dev.library_management.dto.response;
+
+import java.util.List;
+
+import lombok.Builder;
+
+@Builder
+public record CursorPageResponse<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String nextCursor // Sonraki sayfa için opak imleç, son sayfada null
+) {
+}
@@ -0,0 +1,16 @@
+package io.github.SenaUstun_Dev.library_management.dto.response;
+
+import java.util.Comparator;
+
+import lombok.Builder;
+
+@Builder
+public record FacetCount(
+        Long id,
+        String name,
+        long count
+) {
+    // Çok kitabı olan facet önce, eşitlikte isme göre
+    public static final Comparator<FacetCount> BY_COUNT_DESC = Comparator.comparingLong(FacetCount::count).reversed()
+            .thenComparing(FacetCount::name);
+}
@@ -38,6 +38,10 @@ public class AppUser {
     @Column(name = "lost_book_count")
     private int lostBookCount = 0;
 
+    // Açık ödünç sayısı; sadece AppUserRepository'deki atomik UPDATE'ler ile değişir, entity üzerinden yazılmaz
+    @Column(name = "active_loan_count", nullable = false, insertable = false, updatable = false)
+    private int activeLoanCount;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "borrowing_privilege", nullable = false)
     private BorrowingPrivilege borrowingPrivilege = BorrowingPrivilege.FULL;
@@ -3,12 +3,23 @@ package io.github.SenaUstun_Dev.library_management.entity;
 import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "books")
+// Liste okumaları için tek sorguluk yükleme planı; koleksiyonlar varsayılan olarak LAZY
+@NamedEntityGraph(
+        name = Book.CATALOG_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("authors"),
+                @NamedAttributeNode("publishers"),
+                @NamedAttributeNode("genres")
+        }
+)
 @Getter
 @Setter
 @Builder
@@ -18,6 +29,8 @@ import java.util.Set;
 @EqualsAndHashCode(of = "id")
 public class Book {
 
+    public static final String CATALOG_GRAPH = "Book.catalog";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -29,7 +42,16 @@ public class Book {
     @Column(name = "status", nullable = false)
     private BookStatus status;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Her güncellemede artar; ETag ve iyimser kilit için
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "last_modified_at", nullable = false)
+    private Instant lastModifiedAt;
+
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "book_author",
             joinColumns = @JoinColumn(name = "book_id"),
@@ -37,7 +59,7 @@ public class Book {
     )
     private Set<Author> authors = new HashSet<>();
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "book_publisher",
             joinColumns = @JoinColumn(name = "book_id"),
@@ -45,7 +67,7 @@ public class Book {
     )
     private Set<Publisher> publishers = new HashSet<>();
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "book_genre",
             joinColumns = @JoinColumn(name = "book_id"),
@@ -1,5 +1,6 @@
 package io.github.SenaUstun_Dev.library_management.entity;
 
+import java.time.Instant;
 import java.util.Set;
 
 import jakarta.persistence.Column;
@@ -9,6 +10,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -35,6 +39,15 @@ public class BookGenre {
     @Column(name = "name", nullable = false, unique = true, length = 100)
     private String name;
 
+    // Her güncellemede artar; ETag ve iyimser kilit için
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "last_modified_at", nullable = false)
+    private Instant lastModifiedAt;
+
      @ManyToMany(mappedBy = "genres")
      private Set<Book> books;
 }
@@ -1,4 +1,5 @@
 package io.github.SenaUstun_Dev.library_management.entity;
+import java.time.Instant;
 import java.util.Set;
 
 import jakarta.persistence.Column;
@@ -8,6 +9,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -34,6 +38,15 @@ public class Publisher {
     @Column(name = "name", nullable = false, unique = true, length = 255)
     private String name;
 
+    // Her güncellemede artar; ETag ve iyimser kilit için
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "last_modified_at", nullable = false)
+    private Instant lastModifiedAt;
+
      @ManyToMany(mappedBy = "publishers")
      private Set<Book> books;
 }
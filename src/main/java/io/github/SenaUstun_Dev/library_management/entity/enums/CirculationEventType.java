@@ -0,0 +1,8 @@
+package io.github.SenaUstun_Dev.library_management.entity.enums;
+
+public enum CirculationEventType {
+    BORROWED,
+    RETURNED,
+    MARKED_LOST,
+    PRIVILEGE_CHANGED
+}
@@ -12,6 +12,11 @@ public enum ErrorMessages {
     BORROWING_NOT_ALLOWED("Borrowing not allowed"),
     MAX_BOOKS_EXCEEDED("Maximum books limit exceeded"),
     BOOK_NOT_AVAILABLE("Book is not available"),
+    HOLD_NOT_ALLOWED("Hold not allowed"),
+    HOLD_NOT_FOUND("Hold not found"),
+    INVALID_CURSOR("Invalid pagination cursor"),
+    IDEMPOTENCY_KEY_REUSED("Idempotency key was used for a different request"),
+    REQUEST_IN_PROGRESS("Request with this idempotency key is still in progress"),
     UNEXPECTED_ERROR("Unexpected error occurred");
 
     private final String message;
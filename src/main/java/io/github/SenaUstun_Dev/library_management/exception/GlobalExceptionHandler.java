@@ -1,6 +1,8 @@
 package io.github.SenaUstun_Dev.library_management.exception;
 
 import io.github.SenaUstun_Dev.library_management.dto.response.ErrorResponse;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -16,6 +18,9 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    // Bir kitabın tek açık ödünç kaydı olabilir; eşzamanlı ödünçte kaybeden istek bu kısıta takılır
+    private static final String OPEN_LOAN_CONSTRAINT = "uq_borrowed_books_open_loan_book";
+
     @ExceptionHandler(BaseException.class)
     public ResponseEntity<ErrorResponse> handleBaseException(BaseException e, WebRequest request) {
         // BaseException'dan gelen status bilgisini kullanarak HTTP durumunu al
@@ -55,6 +60,28 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, status);
     }
 
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation(DataIntegrityViolationException e, WebRequest request) {
+        String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        if (cause == null || !cause.contains(OPEN_LOAN_CONSTRAINT)) {
+            throw e; // Diğer kısıt ihlalleri beklenmeyen hata olarak kalır
+        }
+
+        // Kitabın başka bir açık ödünç kaydı var: ödünç alma çakışmasıyla aynı yanıt
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        ErrorResponse errorResponse = new ErrorResponse(
+                status.value(),
+                status.getReasonPhrase(),
+                ErrorMessages.BOOK_NOT_AVAILABLE.getMessage(),
+                "Book already has an open loan.",
+                ((ServletWebRequest) request).getRequest().getRequestURI(),
+                LocalDateTime.now(),
+                null
+        );
+
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
     // Genel RuntimeException veya diğer beklenmedik hatalar için (fallback) handler buraya yazılacak.
     // Bu handler beklenmeyen hataları yakalar ve genel bir 500 Internal Server Error döner.
     // Loglama yapmak bu handler için çok önemlidir.
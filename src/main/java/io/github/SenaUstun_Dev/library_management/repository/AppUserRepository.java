@@ -1,9 +1,13 @@
 package io.github.SenaUstun_Dev.library_management.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import io.github.SenaUstun_Dev.library_management.entity.AppUser;
@@ -11,7 +15,49 @@ import io.github.SenaUstun_Dev.library_management.entity.AppUser;
 @Repository
 public interface AppUserRepository extends JpaRepository<AppUser, Long> {
     Optional<AppUser> findByUsername(String username);
-    List<AppUser> findByFirstNameContainingIgnoreCase(String firstName);
-    List<AppUser> findByLastNameContainingIgnoreCase(String lastName);
     Optional<AppUser> findByEmail(String email);
+
+    // idx_users_first_name_trgm / idx_users_last_name_trgm indekslerini kullanır
+    @Query(value = "SELECT * FROM users u WHERE lower(u.first_name) LIKE lower(:pattern) ESCAPE '\\'", nativeQuery = true)
+    List<AppUser> findByFirstNameLike(@Param("pattern") String pattern);
+
+    @Query(value = "SELECT * FROM users u WHERE lower(u.last_name) LIKE lower(:pattern) ESCAPE '\\'", nativeQuery = true)
+    List<AppUser> findByLastNameLike(@Param("pattern") String pattern);
+
+    // Ödünç sınırı kontrolü ve sayaç artışı tek satırlık UPDATE ile yapılır; 0 dönerse kullanıcı sınırdadır.
+    // Satır kilidi aynı kullanıcının paralel ödünç isteklerini sıraya sokar.
+    @Modifying
+    @Query(value = "UPDATE users SET active_loan_count = active_loan_count + 1 " +
+            "WHERE id = :userId AND active_loan_count < :limit", nativeQuery = true)
+    int incrementActiveLoanCount(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE users SET active_loan_count = active_loan_count - 1 " +
+            "WHERE id = :userId AND active_loan_count > 0", nativeQuery = true)
+    int decrementActiveLoanCount(@Param("userId") Long userId);
+
+    // Sayacı açık ödünç kayıtlarıyla uyuşmayan kullanıcılar (tek bir gruplu sorgu)
+    @Query(value = "SELECT u.id FROM users u " +
+            "LEFT JOIN (SELECT user_id, count(*) AS open_loans FROM borrowed_books " +
+            "           WHERE actual_return_date IS NULL GROUP BY user_id) b ON b.user_id = u.id " +
+            "WHERE u.active_loan_count <> COALESCE(b.open_loans, 0) ORDER BY u.id", nativeQuery = true)
+    List<Long> findIdsWithActiveLoanCountDrift();
+
+    // Düzeltme öncesi satırlar kilitlenir; böylece sonraki UPDATE süren ödünç/iade işlemlerinin commit'ini görür
+    @Query(value = "SELECT id FROM users WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE users u SET active_loan_count = " +
+            "(SELECT count(*) FROM borrowed_books b WHERE b.user_id = u.id AND b.actual_return_date IS NULL) " +
+            "WHERE u.id IN (:ids)", nativeQuery = true)
+    int recomputeActiveLoanCounts(@Param("ids") Collection<Long> ids);
+
+    default List<AppUser> findByFirstNameContainingIgnoreCase(String firstName) {
+        return findByFirstNameLike(LikePatterns.contains(firstName));
+    }
+
+    default List<AppUser> findByLastNameContainingIgnoreCase(String lastName) {
+        return findByLastNameLike(LikePatterns.contains(lastName));
+    }
 }
@@ -1,23 +1,51 @@
 package io.github.SenaUstun_Dev.library_management.repository;
 
 import io.github.SenaUstun_Dev.library_management.entity.Author;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, Long> {
-    @Query("SELECT a FROM Author a WHERE " +
-            "(:penName IS NULL OR lower(a.penName) LIKE lower(concat('%', :penName, '%'))) AND " +
-            "(:firstName IS NULL OR lower(a.firstName) LIKE lower(concat('%', :firstName, '%'))) AND " +
-            "(:secondName IS NULL OR lower(a.secondName) LIKE lower(concat('%', :secondName, '%')))")
-    List<Author> findByCriteria(@Param("penName") String penName,
-                                @Param("firstName") String firstName,
-                                @Param("secondName") String secondName);
-
-    Set<Author> findByPenNameContainingIgnoreCaseOrFirstNameContainingIgnoreCaseOrSecondNameContainingIgnoreCase(String authorCriteria, String authorCriteria1, String authorCriteria2);
+
+    // lower(...) LIKE ifadeleri idx_authors_*_trgm GIN indekslerini kullanır; null parametre o kriteri devre dışı bırakır
+    @Query(value = "SELECT * FROM authors a WHERE " +
+            "(CAST(:penName AS text) IS NULL OR lower(a.pen_name) LIKE lower(CAST(:penName AS text)) ESCAPE '\\') AND " +
+            "(CAST(:firstName AS text) IS NULL OR lower(a.first_name) LIKE lower(CAST(:firstName AS text)) ESCAPE '\\') AND " +
+            "(CAST(:secondName AS text) IS NULL OR lower(a.second_name) LIKE lower(CAST(:secondName AS text)) ESCAPE '\\')",
+            nativeQuery = true)
+    List<Author> findByCriteriaPatterns(@Param("penName") String penNamePattern,
+                                        @Param("firstName") String firstNamePattern,
+                                        @Param("secondName") String secondNamePattern);
+
+    default List<Author> findByCriteria(String penName, String firstName, String secondName) {
+        return findByCriteriaPatterns(
+                LikePatterns.contains(penName),
+                LikePatterns.contains(firstName),
+                LikePatterns.contains(secondName));
+    }
+
+    // Takma ad, ad veya ikinci addan herhangi biri eşleşirse; üç trigram indeksi BitmapOr ile birleştirilir
+    @Query(value = "SELECT * FROM authors a WHERE lower(a.pen_name) LIKE lower(:pattern) ESCAPE '\\' " +
+            "OR lower(a.first_name) LIKE lower(:pattern) ESCAPE '\\' " +
+            "OR lower(a.second_name) LIKE lower(:pattern) ESCAPE '\\'",
+            nativeQuery = true)
+    Set<Author> findByAnyNameLike(@Param("pattern") String pattern);
+
+    default Set<Author> findByAnyNameContaining(String text) {
+        return findByAnyNameLike(LikePatterns.contains(text));
+    }
+
+    // Koşullu GET: DTO oluşturmadan tek kaydın / tüm listenin sürüm özeti
+    @Query("SELECT new io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion(1L, a.version, a.lastModifiedAt) FROM Author a WHERE a.id = :id")
+    Optional<ResourceVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion(COUNT(a), COALESCE(SUM(a.version), 0L), MAX(a.lastModifiedAt)) FROM Author a")
+    ResourceVersion findCollectionVersion();
 }
@@ -0,0 +1,109 @@
+package io.github.SenaUstun_Dev.library_management.repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Toplu kitap ekleme için JDBC erişimi.
+ * Book.id IDENTITY olduğu için Hibernate insert'leri batch'leyemez; burada id'ler sequence'tan önceden
+ * alınır ve kitaplar ile ilişki satırları JDBC batch olarak yazılır (reWriteBatchedInserts ile çok satırlı INSERT).
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookBulkInsertRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record BookRow(Long id, String name, BookStatus status,
+                          Set<Long> authorIds, Set<Long> publisherIds, Set<Long> genreIds) {
+    }
+
+    // Kimlik kolonunun sequence'ından tek sorguda count adet id ayırır
+    public List<Long> allocateBookIds(int count) {
+        return jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('books', 'id')) FROM generate_series(1, :count)",
+                Map.of("count", count),
+                Long.class);
+    }
+
+    public Set<Long> findExistingAuthorIds(Collection<Long> ids) {
+        return findExistingIds("SELECT id FROM authors WHERE id IN (:ids)", ids);
+    }
+
+    public Set<Long> findExistingPublisherIds(Collection<Long> ids) {
+        return findExistingIds("SELECT id FROM publishers WHERE id IN (:ids)", ids);
+    }
+
+    public Set<Long> findExistingGenreIds(Collection<Long> ids) {
+        return findExistingIds("SELECT id FROM book_genres WHERE id IN (:ids)", ids);
+    }
+
+    // Verilen (küçük harfe çevrilmiş) isimlerden veritabanında zaten olanlar; idx_books_lower_name kullanılır
+    public Set<String> findExistingLowerNames(Collection<String> lowerNames) {
+        if (lowerNames.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT lower(name) FROM books WHERE lower(name) IN (:names)",
+                Map.of("names", lowerNames),
+                String.class));
+    }
+
+    /**
+     * Kitapları ve ilişki satırlarını batch olarak ekler.
+     *
+     * @return eklenen toplam satır sayısı
+     */
+    public long insert(List<BookRow> books) {
+        if (books.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO books (id, name, status) VALUES (:id, :name, :status)",
+                books.stream()
+                        .map(book -> new MapSqlParameterSource()
+                                .addValue("id", book.id())
+                                .addValue("name", book.name())
+                                .addValue("status", book.status().name()))
+                        .toArray(MapSqlParameterSource[]::new));
+
+        long rows = books.size();
+        rows += insertLinks("INSERT INTO book_author (book_id, author_id) VALUES (:bookId, :refId)", books, BookRow::authorIds);
+        rows += insertLinks("INSERT INTO book_publisher (book_id, publisher_id) VALUES (:bookId, :refId)", books, BookRow::publisherIds);
+        rows += insertLinks("INSERT INTO book_genre (book_id, genre_id) VALUES (:bookId, :refId)", books, BookRow::genreIds);
+        return rows;
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private Set<Long> findExistingIds(String sql, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Map.of("ids", ids), Long.class));
+    }
+
+    private int insertLinks(String sql, List<BookRow> books, Function<BookRow, Set<Long>> refIds) {
+        MapSqlParameterSource[] batch = books.stream()
+                .flatMap(book -> refIds.apply(book).stream()
+                        .map(refId -> new MapSqlParameterSource()
+                                .addValue("bookId", book.id())
+                                .addValue("refId", refId)))
+                .toArray(MapSqlParameterSource[]::new);
+        if (batch.length > 0) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+        return batch.length;
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.SenaUstun_Dev.library_management.repository;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import io.github.SenaUstun_Dev.library_management.dto.request.BookFacetSearchRequest;
+import io.github.SenaUstun_Dev.library_management.dto.response.FacetCount;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Birleşik kitap araması: eşleşen kitap id'leri, toplam sayı ve tür/yayıncı/durum sayıları tek SQL ifadesiyle döner.
+ * Eşleşen küme bir CTE'de bir kez hesaplanır; her facet ve sayfa satırları UNION ALL ile aynı sonuçta gelir.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookFacetSearchRepository {
+
+    private static final String FACET_TOTAL = "TOTAL";
+    private static final String FACET_GENRE = "GENRE";
+    private static final String FACET_PUBLISHER = "PUBLISHER";
+    private static final String FACET_STATUS = "STATUS";
+    private static final String ROW_BOOK = "BOOK";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record Result(
+            List<Long> bookIds, // id sırasıyla, en fazla size + 1 kayıt
+            long totalCount,
+            List<FacetCount> genres,
+            List<FacetCount> publishers,
+            Map<BookStatus, Long> statuses
+    ) {
+    }
+
+    public Result search(BookFacetSearchRequest request) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder where = new StringBuilder("WHERE 1 = 1");
+
+        if (request.status() != null) {
+            where.append(" AND b.status = :status");
+            params.addValue("status", request.status().name());
+        }
+        if (request.genreIds() != null && !request.genreIds().isEmpty()) {
+            where.append(" AND EXISTS (SELECT 1 FROM book_genre bg WHERE bg.book_id = b.id AND bg.genre_id IN (:genreIds))");
+            params.addValue("genreIds", request.genreIds());
+        }
+        if (request.publisherIds() != null && !request.publisherIds().isEmpty()) {
+            where.append(" AND EXISTS (SELECT 1 FROM book_publisher bp WHERE bp.book_id = b.id AND bp.publisher_id IN (:publisherIds))");
+            params.addValue("publisherIds", request.publisherIds());
+        }
+        if (request.author() != null && !request.author().isBlank()) {
+            // Yazar koşulu idx_authors_*_trgm indekslerini kullanır
+            where.append(" AND EXISTS (SELECT 1 FROM book_author ba JOIN authors a ON a.id = ba.author_id WHERE ba.book_id = b.id"
+                    + " AND (lower(a.pen_name) LIKE lower(:author) ESCAPE '\\'"
+                    + " OR lower(a.first_name) LIKE lower(:author) ESCAPE '\\'"
+                    + " OR lower(a.second_name) LIKE lower(:author) ESCAPE '\\'))");
+            params.addValue("author", LikePatterns.contains(request.author().trim()));
+        }
+
+        String bookPageCondition = "";
+        if (request.afterId() != null) {
+            bookPageCondition = "WHERE m.id > :afterId ";
+            params.addValue("afterId", request.afterId());
+        }
+        // Bir fazla id çekilir, sonraki sayfanın varlığı ayrıca sorgu atmadan anlaşılır
+        params.addValue("limit", request.size() + 1);
+
+        String sql = "WITH matched AS (SELECT b.id, b.status FROM books b " + where + ") "
+                + "SELECT '" + FACET_TOTAL + "' AS row_type, CAST(NULL AS BIGINT) AS ref_id, CAST(NULL AS VARCHAR) AS label, COUNT(*) AS cnt FROM matched "
+                + "UNION ALL "
+                + "SELECT '" + FACET_GENRE + "', g.id, g.name, COUNT(*) FROM matched m "
+                + "JOIN book_genre bg ON bg.book_id = m.id JOIN book_genres g ON g.id = bg.genre_id GROUP BY g.id, g.name "
+                + "UNION ALL "
+                + "SELECT '" + FACET_PUBLISHER + "', p.id, p.name, COUNT(*) FROM matched m "
+                + "JOIN book_publisher bp ON bp.book_id = m.id JOIN publishers p ON p.id = bp.publisher_id GROUP BY p.id, p.name "
+                + "UNION ALL "
+                + "SELECT '" + FACET_STATUS + "', NULL, m.status, COUNT(*) FROM matched m GROUP BY m.status "
+                + "UNION ALL "
+                + "(SELECT '" + ROW_BOOK + "', m.id, NULL, NULL FROM matched m " + bookPageCondition + "ORDER BY m.id LIMIT :limit)";
+
+        List<Long> bookIds = new ArrayList<>();
+        List<FacetCount> genres = new ArrayList<>();
+        List<FacetCount> publishers = new ArrayList<>();
+        Map<BookStatus, Long> statuses = new EnumMap<>(BookStatus.class);
+        long[] total = {0L};
+
+        jdbcTemplate.query(sql, params, rs -> {
+            String rowType = rs.getString("row_type");
+            switch (rowType) {
+                case FACET_TOTAL -> total[0] = rs.getLong("cnt");
+                case FACET_GENRE -> genres.add(facet(rs.getLong("ref_id"), rs.getString("label"), rs.getLong("cnt")));
+                case FACET_PUBLISHER -> publishers.add(facet(rs.getLong("ref_id"), rs.getString("label"), rs.getLong("cnt")));
+                case FACET_STATUS -> statuses.put(BookStatus.valueOf(rs.getString("label")), rs.getLong("cnt"));
+                case ROW_BOOK -> bookIds.add(rs.getLong("ref_id"));
+                default -> throw new IllegalStateException("Unexpected facet row type: " + rowType);
+            }
+        });
+
+        // UNION ALL sırası garanti değildir; sayfa id'leri ve facet'ler burada sıralanır
+        bookIds.sort(null);
+        genres.sort(FacetCount.BY_COUNT_DESC);
+        publishers.sort(FacetCount.BY_COUNT_DESC);
+        return new Result(bookIds, total[0], genres, publishers, statuses);
+    }
+
+    private static FacetCount facet(long id, String name, long count) {
+        return FacetCount.builder().id(id).name(name).count(count).build();
+    }
+}
@@ -1,12 +1,23 @@
 package io.github.SenaUstun_Dev.library_management.repository;
 
 import io.github.SenaUstun_Dev.library_management.entity.BookGenre;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface BookGenreRepository extends JpaRepository<BookGenre, Long> {
-    Optional<BookGenre> findByNameIgnoreCase(String name);
+    // idx_book_genres_lower_name indeksini kullanır
+    @Query(value = "SELECT * FROM book_genres g WHERE lower(g.name) = lower(:name) ORDER BY g.id LIMIT 1", nativeQuery = true)
+    Optional<BookGenre> findByNameIgnoreCase(@Param("name") String name);
+
+    @Query("SELECT new io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion(1L, g.version, g.lastModifiedAt) FROM BookGenre g WHERE g.id = :id")
+    Optional<ResourceVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion(COUNT(g), COALESCE(SUM(g.version), 0L), MAX(g.lastModifiedAt)) FROM BookGenre g")
+    ResourceVersion findCollectionVersion();
 }
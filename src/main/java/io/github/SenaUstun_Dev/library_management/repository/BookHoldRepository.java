@@ -0,0 +1,42 @@
+package io.github.SenaUstun_Dev.library_management.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import io.github.SenaUstun_Dev.library_management.entity.BookHold;
+import io.github.SenaUstun_Dev.library_management.repository.projection.HoldQueueEntry;
+
+@Repository
+public interface BookHoldRepository extends JpaRepository<BookHold, Long> {
+
+    boolean existsByBookIdAndUserId(Long bookId, Long userId);
+
+    @EntityGraph(attributePaths = "book")
+    Optional<BookHold> findByBookIdAndUserId(Long bookId, Long userId);
+
+    @EntityGraph(attributePaths = "book")
+    List<BookHold> findByUserIdOrderByIdAsc(Long userId);
+
+    // Sıradaki yer (1'den başlar): aynı kitap için bu kayıt dahil önceki kayıtların sayısı (idx_book_holds_book_id_id)
+    @Query("SELECT COUNT(h) FROM BookHold h WHERE h.book.id = :bookId AND h.id <= :holdId")
+    long findPosition(@Param("bookId") Long bookId, @Param("holdId") Long holdId);
+
+    long countByBookId(Long bookId);
+
+    // Karşılanan veya iptal edilen kayıt; 0 dönerse kayıt zaten silinmiştir
+    @Modifying
+    @Query("DELETE FROM BookHold h WHERE h.id = :holdId")
+    int deleteHold(@Param("holdId") Long holdId);
+
+    // Uygulama açılışında bellek içi sıra bu listeden kurulur
+    @Query("SELECT new io.github.SenaUstun_Dev.library_management.repository.projection.HoldQueueEntry(h.id, h.book.id, h.user.id) " +
+            "FROM BookHold h ORDER BY h.book.id, h.id")
+    List<HoldQueueEntry> findAllQueueEntries();
+}
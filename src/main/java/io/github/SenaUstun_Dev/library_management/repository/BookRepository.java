@@ -1,10 +1,21 @@
 package io.github.SenaUstun_Dev.library_management.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import io.github.SenaUstun_Dev.library_management.entity.Author;
@@ -12,16 +23,109 @@ import io.github.SenaUstun_Dev.library_management.entity.Book;
 import io.github.SenaUstun_Dev.library_management.entity.BookGenre;
 import io.github.SenaUstun_Dev.library_management.entity.Publisher;
 import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
-    List<Book> findByGenresContains(BookGenre genre);
+    // Türetilmiş IgnoreCase sorgusu upper() ürettiği için idx_books_lower_name kullanılamıyordu
+    @Query(value = "SELECT * FROM books b WHERE lower(b.name) = lower(:name) ORDER BY b.id LIMIT 1", nativeQuery = true)
+    Optional<Book> findByNameIgnoreCase(@Param("name") String name);
+
+    // Önbellekli okumalar için sadece id döndüren sorgular; BookResponse'lar BookResponseCache'ten gelir
+    @Query("SELECT b.id FROM Book b WHERE lower(b.name) = lower(:name)")
+    Optional<Long> findIdByNameIgnoreCase(@Param("name") String name);
+
+    @Query("SELECT DISTINCT b.id FROM Book b JOIN b.authors a WHERE a IN :authors ORDER BY b.id")
+    List<Long> findIdsByAuthorsIn(@Param("authors") Set<Author> authors);
+
+    @Query("SELECT b.id FROM Book b JOIN b.genres g WHERE g = :genre ORDER BY b.id")
+    List<Long> findIdsByGenre(@Param("genre") BookGenre genre);
+
+    @Query("SELECT b.id FROM Book b JOIN b.publishers p WHERE p = :publisher ORDER BY b.id")
+    List<Long> findIdsByPublisher(@Param("publisher") Publisher publisher);
+
+    // Yazar/yayıncı/tür değiştiğinde önbellekten düşürülecek kitaplar
+    @Query("SELECT b.id FROM Book b JOIN b.authors a WHERE a.id = :authorId")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+
+    @Query("SELECT b.id FROM Book b JOIN b.genres g WHERE g.id = :genreId")
+    List<Long> findIdsByGenreId(@Param("genreId") Long genreId);
+
+    @Query("SELECT b.id FROM Book b JOIN b.publishers p WHERE p.id = :publisherId")
+    List<Long> findIdsByPublisherId(@Param("publisherId") Long publisherId);
+
+    // Koşullu GET: sadece sürüm bilgisi okunur
+    @Query("SELECT new io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion(1L, b.version, b.lastModifiedAt) FROM Book b WHERE b.id = :id")
+    Optional<ResourceVersion> findVersionById(@Param("id") Long id);
+
+    // Yazar/yayıncı/tür değişikliği kitap yanıtını da değiştirdiği için bu kitapların sürümü artırılır
+    @Modifying
+    @Query("UPDATE Book b SET b.version = b.version + 1, b.lastModifiedAt = :modifiedAt WHERE b.id IN :ids")
+    int incrementVersions(@Param("ids") Collection<Long> ids, @Param("modifiedAt") Instant modifiedAt);
 
-    List<Book> findByPublishersContains(Publisher publisher);
+    @Query("SELECT b.status FROM Book b WHERE b.id = :id")
+    Optional<BookStatus> findStatusById(@Param("id") Long id);
 
-    List<Book> findByAuthorsIn(Set<Author> matchingAuthors);
+    // Durum geçişi tek atomik UPDATE ile yapılır: satır kilidi alınır ve koşul commit edilmiş son değere göre
+    // yeniden değerlendirilir, böylece aynı kitabı iki istek birden ödünç alamaz. 0 dönerse kitap beklenen durumda değildir.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.status = :to, b.version = b.version + 1, b.lastModifiedAt = :modifiedAt " +
+            "WHERE b.id = :id AND b.status = :from")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("from") BookStatus from,
+                         @Param("to") BookStatus to,
+                         @Param("modifiedAt") Instant modifiedAt);
 
-    Optional<Book> findByNameIgnoreCase(String name);
-    
+    // Liste sorguları Book.catalog grafiği ile yazar/yayıncı/türleri aynı SQL'de getirir (N+1 yok)
+    @EntityGraph(Book.CATALOG_GRAPH)
     List<Book> findByStatus(BookStatus status);
+
+    @Override
+    @EntityGraph(Book.CATALOG_GRAPH)
+    List<Book> findAll();
+
+    @EntityGraph(Book.CATALOG_GRAPH)
+    Optional<Book> findWithCatalogById(Long id);
+
+    // Sayfalı okumaların ikinci aşaması: sayfadaki id'ler tek sorguda ilişkileriyle yüklenir
+    @EntityGraph(Book.CATALOG_GRAPH)
+    List<Book> findByIdIn(Collection<Long> ids);
+
+    // Katalog listesinin ilk sayfası (sıralama Pageable üzerinden verilir, count sorgusu çalışmaz)
+    @Query("SELECT b.id FROM Book b")
+    List<Long> findCatalogIds(Pageable pageable);
+
+    // Keyset sayfalama: son görülen kaydın ardından devam eder, OFFSET kullanılmaz
+    @Query("SELECT b.id FROM Book b WHERE b.id > :lastId ORDER BY b.id ASC")
+    List<Long> findIdsAfterId(@Param("lastId") Long lastId, Pageable pageable);
+
+    // Arama indeksinin replikalar arası yenilemesi; idx_books_last_modified_at kullanır
+    @Query("SELECT b.id FROM Book b WHERE b.lastModifiedAt >= :since ORDER BY b.id ASC")
+    List<Long> findIdsModifiedSince(@Param("since") Instant since);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id < :lastId ORDER BY b.id DESC")
+    List<Long> findIdsBeforeId(@Param("lastId") Long lastId, Pageable pageable);
+
+    // name >= :lastName koşulu (name, id) indeksinde aralık taraması sağlar, kalan koşul sadece eşit isimleri eler
+    @Query("SELECT b.id FROM Book b WHERE b.name >= :lastName AND (b.name > :lastName OR b.id > :lastId) " +
+            "ORDER BY b.name ASC, b.id ASC")
+    List<Long> findIdsAfterName(@Param("lastName") String lastName,
+                                @Param("lastId") Long lastId,
+                                Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b WHERE b.name <= :lastName AND (b.name < :lastName OR b.id < :lastId) " +
+            "ORDER BY b.name DESC, b.id DESC")
+    List<Long> findIdsBeforeName(@Param("lastName") String lastName,
+                                 @Param("lastId") Long lastId,
+                                 Pageable pageable);
+
+    // Tüm katalog sunucu tarafı cursor ile satır satır okunur (transaction içinde ve kapatılarak kullanılmalı).
+    // İlişkiler burada fetch edilmez; çağıran taraf default_batch_fetch_size ile parça parça yükler.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Book b ORDER BY b.id")
+    Stream<Book> streamAllOrderById();
 }
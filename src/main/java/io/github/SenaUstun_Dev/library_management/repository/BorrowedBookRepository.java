@@ -2,7 +2,10 @@ package io.github.SenaUstun_Dev.library_management.repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,27 +13,45 @@ import org.springframework.stereotype.Repository;
 
 import io.github.SenaUstun_Dev.library_management.entity.AppUser;
 import io.github.SenaUstun_Dev.library_management.entity.BorrowedBook;
+import io.github.SenaUstun_Dev.library_management.repository.projection.LoanView;
 
 @Repository
 public interface BorrowedBookRepository extends JpaRepository<BorrowedBook, Long> {
+    // Projeksiyon sorgularının ortak SELECT/JOIN kısmı
+    String LOAN_VIEW_SELECT = "SELECT new io.github.SenaUstun_Dev.library_management.repository.projection.LoanView(" +
+            "b.id, b.borrowDate, b.dueDate, b.actualReturnDate, b.lost, " +
+            "u.username, u.email, u.firstName, u.lastName, bk.id, bk.name, bk.status) " +
+            "FROM BorrowedBook b JOIN b.user u JOIN b.book bk ";
+
     // Aktif olarak ödünç alınan kitaplar (iade edilmemiş)
     List<BorrowedBook> findByUserAndActualReturnDateIsNull(AppUser user);
     
-    // Geçmiş ödünç kitap kayıtları (iade edilmiş)
-    List<BorrowedBook> findByUserAndActualReturnDateIsNotNull(AppUser user);
+    // İade için tek açık kayıt: uq_borrowed_books_open_loan_book indeksiyle bulunur, kitap aynı sorguda yüklenir
+    @EntityGraph(attributePaths = "book")
+    Optional<BorrowedBook> findByUserIdAndBookIdAndActualReturnDateIsNull(Long userId, Long bookId);
     
     // Belli bir kullanıcının aktif ödünç kitapları - Admin için
     List<BorrowedBook> findByUserIdAndActualReturnDateIsNull(Long userId);
     
-    // Belli bir kullanıcının geçmiş ödünç kitapları - Admin için
-    List<BorrowedBook> findByUserIdAndActualReturnDateIsNotNull(Long userId);
-    
-    // İade tarihi geçmiş ve kayıp olarak işaretlenmemiş ödünç kitapları bul
-    List<BorrowedBook> findByDueDateLessThanAndLostIsFalseAndActualReturnDateIsNull(LocalDate date);
-    
-    // Kayıp olarak işaretlenmiş tüm ödünç kitapları bul
-    List<BorrowedBook> findByLostIsTrue();
-    
-    @Query("SELECT COUNT(b) FROM BorrowedBook b WHERE b.user = :user AND b.actualReturnDate IS NULL")
-    int countActiveBorrowedBooksByUser(@Param("user") AppUser user);
+    // Geçmiş ve kayıp listeleri: yeniden eskiye, id üzerinden keyset sayfalama (limit Pageable ile verilir).
+    // Boş tarih parametreleri cast edilir ki PostgreSQL parametre tipini her durumda çözebilsin.
+    // idx_borrowed_books_user_returned / idx_borrowed_books_lost indekslerini kullanır
+    @Query(LOAN_VIEW_SELECT +
+            "WHERE u.id = :userId AND b.actualReturnDate IS NOT NULL AND b.id < :beforeId " +
+            "AND (cast(:from as LocalDate) IS NULL OR b.borrowDate >= :from) AND (cast(:to as LocalDate) IS NULL OR b.borrowDate <= :to) " +
+            "ORDER BY b.id DESC")
+    List<LoanView> findReturnedLoanViews(@Param("userId") Long userId,
+                                         @Param("beforeId") Long beforeId,
+                                         @Param("from") LocalDate from,
+                                         @Param("to") LocalDate to,
+                                         Pageable pageable);
+
+    @Query(LOAN_VIEW_SELECT +
+            "WHERE b.lost = true AND b.id < :beforeId " +
+            "AND (cast(:from as LocalDate) IS NULL OR b.borrowDate >= :from) AND (cast(:to as LocalDate) IS NULL OR b.borrowDate <= :to) " +
+            "ORDER BY b.id DESC")
+    List<LoanView> findLostLoanViews(@Param("beforeId") Long beforeId,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to,
+                                     Pageable pageable);
 }
@@ -0,0 +1,127 @@
+package io.github.SenaUstun_Dev.library_management.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import io.github.SenaUstun_Dev.library_management.circulation.CirculationEvent;
+import io.github.SenaUstun_Dev.library_management.entity.enums.CirculationEventType;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * circulation_events defterine ekleme ve defteri id sırasıyla okuma.
+ * Eklemeler çağıranın transaction'ına katılır; olay, değiştirdiği tablolarla birlikte commit veya rollback olur.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CirculationEventRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO circulation_events (event_type, book_id, user_id, loan_id, detail) " +
+            "VALUES (:type, :bookId, :userId, :loanId, :detail)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record OpenLoan(Long bookId, Long userId, boolean lost) {
+    }
+
+    public void append(CirculationEvent event) {
+        jdbcTemplate.update(INSERT_SQL, parameters(event));
+    }
+
+    public void appendAll(List<CirculationEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, events.stream()
+                .map(CirculationEventRepository::parameters)
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
+    // Defteri takip eden okuyucu için: afterId'den sonraki olaylar, id sırasıyla
+    public List<CirculationEvent> findAfter(long afterId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, event_type, book_id, user_id, loan_id, detail, occurred_at FROM circulation_events " +
+                        "WHERE id > :afterId ORDER BY id LIMIT :limit",
+                Map.of("afterId", afterId, "limit", limit),
+                (rs, rowNum) -> mapEvent(rs));
+    }
+
+    // Boşluk olarak atlanmış id'lerden sonradan commit olanlar, id sırasıyla
+    public List<CirculationEvent> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT id, event_type, book_id, user_id, loan_id, detail, occurred_at FROM circulation_events " +
+                        "WHERE id IN (:ids) ORDER BY id",
+                Map.of("ids", ids),
+                (rs, rowNum) -> mapEvent(rs));
+    }
+
+    // (afterId, maxId] aralığında defterde görünmeyen id'ler: geri alınmış veya henüz commit olmamış olaylar
+    public List<Long> findMissingIds(long afterId, long maxId) {
+        if (maxId <= afterId) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT s.id FROM generate_series(CAST(:fromId AS BIGINT), CAST(:toId AS BIGINT)) AS s(id) " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM circulation_events e WHERE e.id = s.id) ORDER BY s.id",
+                Map.of("fromId", afterId + 1, "toId", maxId),
+                Long.class);
+    }
+
+    // occurred_at transaction başlangıcıdır: bu andan önce başlamış transaction'ların yazdığı en büyük olay id'si
+    public long findMaxIdOccurredBefore(Instant occurredBefore) {
+        Long maxId = jdbcTemplate.queryForObject(
+                "SELECT max(id) FROM circulation_events WHERE occurred_at < :occurredBefore",
+                Map.of("occurredBefore", Timestamp.from(occurredBefore)),
+                Long.class);
+        return maxId == null ? 0L : maxId;
+    }
+
+    public long findMaxId() {
+        Long maxId = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT max(id) FROM circulation_events", Long.class);
+        return maxId == null ? 0L : maxId;
+    }
+
+    // Projeksiyonların başlangıç durumu: tüm açık ödünç kayıtları (kayıp olanlar dahil)
+    public void forEachOpenLoan(Consumer<OpenLoan> consumer) {
+        jdbcTemplate.getJdbcTemplate().query(
+                "SELECT book_id, user_id, lost FROM borrowed_books WHERE actual_return_date IS NULL",
+                (RowCallbackHandler) rs -> consumer.accept(new OpenLoan(rs.getLong("book_id"), rs.getLong("user_id"), rs.getBoolean("lost"))));
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private static MapSqlParameterSource parameters(CirculationEvent event) {
+        return new MapSqlParameterSource()
+                .addValue("type", event.type().name())
+                .addValue("bookId", event.bookId())
+                .addValue("userId", event.userId())
+                .addValue("loanId", event.loanId())
+                .addValue("detail", event.detail());
+    }
+
+    private static CirculationEvent mapEvent(ResultSet rs) throws SQLException {
+        Timestamp occurredAt = rs.getTimestamp("occurred_at");
+        return new CirculationEvent(
+                rs.getLong("id"),
+                CirculationEventType.valueOf(rs.getString("event_type")),
+                rs.getObject("book_id", Long.class),
+                rs.getObject("user_id", Long.class),
+                rs.getObject("loan_id", Long.class),
+                rs.getString("detail"),
+                occurredAt == null ? null : occurredAt.toInstant());
+    }
+}
@@ -0,0 +1,224 @@
+package io.github.SenaUstun_Dev.library_management.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import io.github.SenaUstun_Dev.library_management.repository.projection.HoldQueueEntry;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Masa başı toplu ödünç verme / iade alma için küme tabanlı SQL.
+ * Sepetteki tüm kitaplar birkaç ifadeyle işlenir; kilitler her zaman önce kullanıcılar, sonra kitaplar (id sırasıyla)
+ * alınır ki tekli ödünç alma ile aynı sırada olsun ve deadlock oluşmasın. İadede sıradaki bekleyen kaydı kullanıcı
+ * kilitlerinden önce seçilir ki bekleyenin kullanıcı satırı da kitaptan önce kilitlenebilsin.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CirculationJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record BookState(Long id, String name, BookStatus status) {
+    }
+
+    public record LoanRow(Long id, Long bookId, LocalDate borrowDate, LocalDate dueDate, LocalDate actualReturnDate, boolean lost) {
+    }
+
+    // Kullanıcı satırını kilitler ve açık ödünç sayacını döndürür
+    public Optional<Integer> lockUserActiveLoanCount(Long userId) {
+        return jdbcTemplate.queryForList(
+                        "SELECT active_loan_count FROM users WHERE id = :userId FOR UPDATE",
+                        Map.of("userId", userId),
+                        Integer.class)
+                .stream()
+                .findFirst();
+    }
+
+    // Kullanıcı satırlarını id sırasıyla kilitler (gecikme taraması ile aynı sıra); kilitlenen id'leri döndürür
+    public List<Long> lockUsers(Collection<Long> userIds) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                Map.of("ids", userIds),
+                Long.class);
+    }
+
+    // Kullanıcının verilen kitaplardan hâlâ elinde olanlar (kilitsiz okuma; açık kaydı sadece kullanıcı kapatabilir)
+    public List<Long> findOpenLoanBookIds(Long userId, Collection<Long> bookIds) {
+        return jdbcTemplate.queryForList(
+                "SELECT book_id FROM borrowed_books WHERE user_id = :userId AND book_id IN (:ids) AND actual_return_date IS NULL",
+                Map.of("userId", userId, "ids", bookIds),
+                Long.class);
+    }
+
+    /**
+     * Kitabın sıradaki uygun bekleyenini veritabanından seçer (idx_book_holds_book_id_id): izni UNABLE olmayan ve
+     * ödünç sınırı dolmamış ilk kayıt. Kayıt satırı kilitlenir (iptal edilmekte olan kayıtlar atlanır), kullanıcı satırı
+     * kilitlenmez. Sınırı dolu bekleyenler atlanır ama kayıtları sırada kalır; ödünç alamayacak kullanıcıların kayıtları
+     * dropIneligibleHolds ile düşürülür.
+     */
+    public Optional<HoldQueueEntry> claimNextHold(Long bookId, int loanLimit) {
+        return jdbcTemplate.query(
+                        "SELECT h.id, h.book_id, h.user_id FROM book_holds h JOIN users u ON u.id = h.user_id " +
+                                "WHERE h.book_id = :bookId AND u.borrowing_privilege <> 'UNABLE' AND u.active_loan_count < :limit " +
+                                "ORDER BY h.id LIMIT 1 FOR UPDATE OF h SKIP LOCKED",
+                        Map.of("bookId", bookId, "limit", loanLimit),
+                        (rs, rowNum) -> mapHold(rs))
+                .stream()
+                .findFirst();
+    }
+
+    // Kitabın izni UNABLE olan veya silinmiş kullanıcılara ait kayıtlarını siler (iptal edilmekte olan kayıtlar atlanır);
+    // silinen kayıtlar döner
+    public List<HoldQueueEntry> dropIneligibleHolds(Long bookId) {
+        return jdbcTemplate.query(
+                "DELETE FROM book_holds WHERE id IN (" +
+                        "SELECT h.id FROM book_holds h WHERE h.book_id = :bookId AND NOT EXISTS (" +
+                        "SELECT 1 FROM users u WHERE u.id = h.user_id AND u.borrowing_privilege <> 'UNABLE') " +
+                        "FOR UPDATE OF h SKIP LOCKED) " +
+                        "RETURNING id, book_id, user_id",
+                Map.of("bookId", bookId),
+                (rs, rowNum) -> mapHold(rs));
+    }
+
+    // Sepetteki kitapları id sırasıyla kilitler; bulunamayan id'ler sonuçta yer almaz
+    public Map<Long, BookState> lockBooks(Collection<Long> bookIds) {
+        Map<Long, BookState> states = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, name, status FROM books WHERE id IN (:ids) ORDER BY id FOR UPDATE",
+                Map.of("ids", bookIds),
+                rs -> {
+                    Long id = rs.getLong("id");
+                    states.put(id, new BookState(id, rs.getString("name"), BookStatus.valueOf(rs.getString("status"))));
+                });
+        return states;
+    }
+
+    // Sadece beklenen durumdaki kitapları günceller, güncellenen kitap id'lerini döndürür
+    public List<Long> transitionStatuses(Collection<Long> bookIds, BookStatus from, BookStatus to) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "UPDATE books SET status = :to, version = version + 1, last_modified_at = CURRENT_TIMESTAMP " +
+                        "WHERE id IN (:ids) AND status = :from RETURNING id",
+                new MapSqlParameterSource()
+                        .addValue("ids", bookIds)
+                        .addValue("from", from.name())
+                        .addValue("to", to.name()),
+                Long.class);
+    }
+
+    // Kitapların durumunu koşulsuz günceller (iade: ACTIVE, sıradakine verilen: BORROWED); kitaplar kilitli olmalı
+    public Map<Long, BookState> updateStatuses(Collection<Long> bookIds, BookStatus status) {
+        Map<Long, BookState> states = new LinkedHashMap<>();
+        if (bookIds.isEmpty()) {
+            return states;
+        }
+        jdbcTemplate.query(
+                "UPDATE books SET status = :status, version = version + 1, last_modified_at = CURRENT_TIMESTAMP " +
+                        "WHERE id IN (:ids) RETURNING id, name, status",
+                new MapSqlParameterSource()
+                        .addValue("ids", bookIds)
+                        .addValue("status", status.name()),
+                rs -> {
+                    Long id = rs.getLong("id");
+                    states.put(id, new BookState(id, rs.getString("name"), BookStatus.valueOf(rs.getString("status"))));
+                });
+        return states;
+    }
+
+    // Her kitap için tek INSERT ... SELECT ile açık ödünç kaydı oluşturur
+    public List<LoanRow> insertLoans(Long userId, Collection<Long> bookIds, LocalDate borrowDate, LocalDate dueDate) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "INSERT INTO borrowed_books (user_id, book_id, borrow_date, due_date, actual_return_date, lost) " +
+                        "SELECT :userId, b.id, :borrowDate, :dueDate, NULL, false FROM books b WHERE b.id IN (:ids) " +
+                        "RETURNING id, book_id, borrow_date, due_date, actual_return_date, lost",
+                new MapSqlParameterSource()
+                        .addValue("userId", userId)
+                        .addValue("ids", bookIds)
+                        .addValue("borrowDate", borrowDate)
+                        .addValue("dueDate", dueDate),
+                (rs, rowNum) -> mapLoan(rs));
+    }
+
+    // Kullanıcının verilen kitaplardaki açık ödünç kayıtlarını kapatır (uq_borrowed_books_open_loan_book ile bulunur)
+    public List<LoanRow> closeOpenLoans(Long userId, Collection<Long> bookIds, LocalDate returnDate) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "UPDATE borrowed_books SET actual_return_date = :returnDate " +
+                        "WHERE user_id = :userId AND book_id IN (:ids) AND actual_return_date IS NULL " +
+                        "RETURNING id, book_id, borrow_date, due_date, actual_return_date, lost",
+                new MapSqlParameterSource()
+                        .addValue("userId", userId)
+                        .addValue("ids", bookIds)
+                        .addValue("returnDate", returnDate),
+                (rs, rowNum) -> mapLoan(rs));
+    }
+
+    // Kitabın açık kayıp ödünç kaydının sahibi (kilitsiz okuma; kaydı kapatmadan önce kullanıcı kilitlenir)
+    public Optional<Long> findLostLoanUserId(Long bookId) {
+        return jdbcTemplate.queryForList(
+                        "SELECT user_id FROM borrowed_books WHERE book_id = :bookId AND actual_return_date IS NULL AND lost = true",
+                        Map.of("bookId", bookId),
+                        Long.class)
+                .stream()
+                .findFirst();
+    }
+
+    // Kullanıcının kitaptaki açık kayıp ödünç kaydını kapatır; kapatılan kaydın id'si döner
+    public Optional<Long> closeLostLoan(Long userId, Long bookId, LocalDate returnDate) {
+        return jdbcTemplate.queryForList(
+                        "UPDATE borrowed_books SET actual_return_date = :returnDate " +
+                                "WHERE user_id = :userId AND book_id = :bookId AND actual_return_date IS NULL AND lost = true " +
+                                "RETURNING id",
+                        new MapSqlParameterSource()
+                                .addValue("userId", userId)
+                                .addValue("bookId", bookId)
+                                .addValue("returnDate", returnDate),
+                        Long.class)
+                .stream()
+                .findFirst();
+    }
+
+    // Kullanıcı satırı lockUserActiveLoanCount ile kilitli olmalı
+    public void adjustActiveLoanCount(Long userId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        jdbcTemplate.update(
+                "UPDATE users SET active_loan_count = GREATEST(active_loan_count + :delta, 0) WHERE id = :userId",
+                Map.of("userId", userId, "delta", delta));
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private HoldQueueEntry mapHold(ResultSet rs) throws SQLException {
+        return new HoldQueueEntry(rs.getLong("id"), rs.getLong("book_id"), rs.getLong("user_id"));
+    }
+
+    private LoanRow mapLoan(ResultSet rs) throws SQLException {
+        return new LoanRow(
+                rs.getLong("id"),
+                rs.getLong("book_id"),
+                rs.getObject("borrow_date", LocalDate.class),
+                rs.getObject("due_date", LocalDate.class),
+                rs.getObject("actual_return_date", LocalDate.class),
+                rs.getBoolean("lost"));
+    }
+}
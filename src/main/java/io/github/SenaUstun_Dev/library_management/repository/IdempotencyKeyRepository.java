@@ -0,0 +1,92 @@
+package io.github.SenaUstun_Dev.library_management.repository;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * idempotency_keys tablosu. claim, find ve release transaction dışında çağrılır ve kendi başına (autocommit) çalışır;
+ * anahtar, işlenen istekten bağımsız olarak hemen görünür olmalıdır ki aynı anahtarla gelen eşzamanlı ikinci istek
+ * bekleyen kaydı görsün. complete ise işlemin transaction'ına katılır; yanıt işlemle birlikte commit olur.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record StoredRequest(String fingerprint, boolean completed, String responseBody) {
+    }
+
+    /**
+     * Anahtarı PENDING olarak sahiplenir. Aynı anahtar varsa sadece süresi dolmuşsa (ör. yarıda kalmış istek) üzerine yazılır.
+     *
+     * @return anahtar bu istek tarafından alındıysa true
+     */
+    public boolean claim(Long userId, String key, String fingerprint, Duration lease) {
+        return jdbcTemplate.update(
+                "INSERT INTO idempotency_keys (user_id, idempotency_key, request_fingerprint, state, expires_at) " +
+                        "VALUES (:userId, :key, :fingerprint, 'PENDING', CURRENT_TIMESTAMP + :lease * INTERVAL '1 second') " +
+                        "ON CONFLICT (user_id, idempotency_key) DO UPDATE SET " +
+                        "request_fingerprint = EXCLUDED.request_fingerprint, state = 'PENDING', response_body = NULL, " +
+                        "created_at = CURRENT_TIMESTAMP, expires_at = EXCLUDED.expires_at " +
+                        "WHERE idempotency_keys.expires_at < CURRENT_TIMESTAMP",
+                parameters(userId, key)
+                        .addValue("fingerprint", fingerprint)
+                        .addValue("lease", lease.toSeconds())) == 1;
+    }
+
+    public Optional<StoredRequest> find(Long userId, String key) {
+        return jdbcTemplate.query(
+                        "SELECT request_fingerprint, state, response_body FROM idempotency_keys " +
+                                "WHERE user_id = :userId AND idempotency_key = :key AND expires_at >= CURRENT_TIMESTAMP",
+                        parameters(userId, key),
+                        (rs, rowNum) -> new StoredRequest(
+                                rs.getString("request_fingerprint"),
+                                "COMPLETED".equals(rs.getString("state")),
+                                rs.getString("response_body")))
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Bekleyen kaydı yanıtla birlikte tamamlar. Çağıranın transaction'ında çalışmalıdır.
+     *
+     * @return kayıt hâlâ PENDING ise ve güncellendiyse true
+     */
+    public boolean complete(Long userId, String key, String responseBody, Duration ttl) {
+        return jdbcTemplate.update(
+                "UPDATE idempotency_keys SET state = 'COMPLETED', response_body = :body, " +
+                        "expires_at = CURRENT_TIMESTAMP + :ttl * INTERVAL '1 second' " +
+                        "WHERE user_id = :userId AND idempotency_key = :key AND state = 'PENDING'",
+                parameters(userId, key)
+                        .addValue("body", responseBody)
+                        .addValue("ttl", ttl.toSeconds())) == 1;
+    }
+
+    // İstek hata ile bittiyse anahtar serbest bırakılır; aynı anahtarla tekrar denenebilir
+    public void release(Long userId, String key) {
+        jdbcTemplate.update(
+                "DELETE FROM idempotency_keys WHERE user_id = :userId AND idempotency_key = :key AND state = 'PENDING'",
+                parameters(userId, key));
+    }
+
+    // idx_idempotency_keys_expires_at üzerinden süresi dolan kayıtları siler
+    public int deleteExpired() {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < CURRENT_TIMESTAMP", Map.of());
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private static MapSqlParameterSource parameters(Long userId, String key) {
+        return new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("key", key);
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.SenaUstun_Dev.library_management.repository;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * job_checkpoints tablosu. Checkpoint, işlenen parçayla aynı transaction'da yazılmalıdır.
+ */
+@Repository
+@RequiredArgsConstructor
+public class JobCheckpointRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record Checkpoint(String jobName, LocalDate runDate, long lastId, boolean completed) {
+    }
+
+    public Optional<Checkpoint> find(String jobName) {
+        return jdbcTemplate.query(
+                        "SELECT job_name, run_date, last_id, completed FROM job_checkpoints WHERE job_name = :jobName",
+                        Map.of("jobName", jobName),
+                        (rs, rowNum) -> new Checkpoint(
+                                rs.getString("job_name"),
+                                rs.getObject("run_date", LocalDate.class),
+                                rs.getLong("last_id"),
+                                rs.getBoolean("completed")))
+                .stream()
+                .findFirst();
+    }
+
+    public void save(String jobName, LocalDate runDate, long lastId, boolean completed) {
+        jdbcTemplate.update(
+                "INSERT INTO job_checkpoints (job_name, run_date, last_id, completed) " +
+                        "VALUES (:jobName, :runDate, :lastId, :completed) " +
+                        "ON CONFLICT (job_name) DO UPDATE SET run_date = EXCLUDED.run_date, last_id = EXCLUDED.last_id, " +
+                        "completed = EXCLUDED.completed, updated_at = CURRENT_TIMESTAMP",
+                new MapSqlParameterSource()
+                        .addValue("jobName", jobName)
+                        .addValue("runDate", runDate)
+                        .addValue("lastId", lastId)
+                        .addValue("completed", completed));
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.SenaUstun_Dev.library_management.repository;
+
+/**
+ * Native LIKE sorguları için arama metnini "%metin%" kalıbına çevirir.
+ * Kullanıcı girdisindeki '%', '_' ve '\' karakterleri kaçışlanır.
+ * Küçük harfe çevirme sorguda lower() ile yapılır ki kolon ile aynı collation kuralları uygulansın.
+ */
+final class LikePatterns {
+
+    private LikePatterns() {
+    }
+
+    static String contains(String text) {
+        if (text == null) {
+            return null;
+        }
+        String escaped = text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.SenaUstun_Dev.library_management.repository;
+
+import java.sql.Array;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * İade tarihi geçmiş ödünçleri kayıp olarak işaretleyen küme tabanlı SQL.
+ * Kilit sırası diğer dolaşım işlemleriyle aynıdır: önce ilgili kullanıcılar (id sırasıyla), sonra ödünç kayıtları ve kitaplar.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OverdueSweepRepository {
+
+    // Kayıp işaretlenecek ödünçler: idx_borrowed_books_overdue indeksinin koşuluyla aynı
+    private static final String OVERDUE = "b.due_date < :today AND b.lost = false AND b.actual_return_date IS NULL";
+    // Paralel taramada kullanıcının bölümü; bir kullanıcının tüm ödünçleri aynı bölüme düşer
+    private static final String IN_PARTITION = " AND mod(b.user_id, :partitions) = :partition";
+    // İşlenecek id aralığı (afterId, untilId]
+    private static final String IN_RANGE = " AND b.id > :afterId AND b.id <= :untilId" + IN_PARTITION;
+    // Vade kuyruğundan gelen belirli ödünçler
+    private static final String IN_LOANS = " AND b.id IN (:loanIds)";
+
+    private static final String SWEEP_RANGE_SQL = sweepSql(IN_RANGE);
+    private static final String SWEEP_LOANS_SQL = sweepSql(IN_LOANS);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Taramanın kapsamı: id aralığı ve kullanıcı bölümü ya da (vade kuyruğu için) belirli ödünç id'leri.
+     * Bölümsüz tarama tek bölümdür (partitions = 1). Her durumda sadece hâlâ gecikmiş olan ödünçler işlenir.
+     */
+    public record SweepScope(LocalDate today, long afterId, long untilId, int partition, int partitions, Collection<Long> loanIds) {
+
+        public static SweepScope all(LocalDate today) {
+            return new SweepScope(today, 0L, Long.MAX_VALUE, 0, 1, null);
+        }
+
+        public static SweepScope partition(LocalDate today, int partition, int partitions) {
+            return new SweepScope(today, 0L, Long.MAX_VALUE, partition, partitions, null);
+        }
+
+        public static SweepScope loans(LocalDate today, Collection<Long> loanIds) {
+            return new SweepScope(today, 0L, Long.MAX_VALUE, 0, 1, List.copyOf(loanIds));
+        }
+
+        public SweepScope range(long afterId, long untilId) {
+            return new SweepScope(today, afterId, untilId, partition, partitions, loanIds);
+        }
+
+        private String filter() {
+            return loanIds == null ? IN_RANGE : IN_LOANS;
+        }
+
+        private Map<String, Object> parameters() {
+            Map<String, Object> parameters = new HashMap<>(Map.of("today", today, "afterId", afterId, "untilId", untilId,
+                    "partition", partition, "partitions", partitions));
+            if (loanIds != null) {
+                parameters.put("loanIds", loanIds);
+            }
+            return parameters;
+        }
+    }
+
+    @Builder
+    public record SweepResult(int loansMarkedLost, List<Long> lostBookIds, int usersPenalized, int privilegesChanged, int events) {
+    }
+
+    // Vade kuyruğunun tohumlanması için açık ve kayıp işaretlenmemiş ödünç
+    public record DueLoan(long loanId, LocalDate dueDate) {
+    }
+
+    /**
+     * Keyset parçalama: kapsamın afterId'sinden sonraki en fazla limit gecikmiş ödüncün son id'si.
+     * Gecikmiş ödünç kalmadıysa boş döner.
+     */
+    public Optional<Long> findChunkEnd(SweepScope scope, int limit) {
+        Map<String, Object> parameters = scope.parameters();
+        parameters.put("limit", limit);
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT max(id) FROM (SELECT b.id FROM borrowed_books b WHERE " + OVERDUE + " AND b.id > :afterId" + IN_PARTITION +
+                        " ORDER BY b.id LIMIT :limit) chunk",
+                parameters,
+                Long.class));
+    }
+
+    // Kapsamda gecikmiş ödüncü olan kullanıcıları id sırasıyla kilitler (ödünç/iade işlemleriyle aynı ilk kilit)
+    public int lockOverdueUsers(SweepScope scope) {
+        return jdbcTemplate.queryForList(
+                "SELECT u.id FROM users u WHERE u.id IN (SELECT b.user_id FROM borrowed_books b WHERE " + OVERDUE + scope.filter() + ") " +
+                        "ORDER BY u.id FOR UPDATE",
+                scope.parameters(),
+                Long.class).size();
+    }
+
+    public SweepResult sweep(SweepScope scope) {
+        return jdbcTemplate.queryForObject(scope.loanIds() == null ? SWEEP_RANGE_SQL : SWEEP_LOANS_SQL, scope.parameters(), (rs, rowNum) -> {
+            Array bookIds = rs.getArray("book_ids");
+            return SweepResult.builder()
+                    .loansMarkedLost(rs.getInt("loans"))
+                    .lostBookIds(bookIds == null ? List.of() : Arrays.asList((Long[]) bookIds.getArray()))
+                    .usersPenalized(rs.getInt("users"))
+                    .privilegesChanged(rs.getInt("privileges_changed"))
+                    .events(rs.getInt("events"))
+                    .build();
+        });
+    }
+
+    // Vadesi verilen tarihten önce olan açık ödünçleri sırayla verir (idx_borrowed_books_overdue)
+    public void forEachOpenLoanDueBefore(LocalDate before, Consumer<DueLoan> consumer) {
+        jdbcTemplate.query(
+                "SELECT b.id, b.due_date FROM borrowed_books b " +
+                        "WHERE b.due_date < :before AND b.lost = false AND b.actual_return_date IS NULL",
+                Map.of("before", before),
+                (RowCallbackHandler) rs -> consumer.accept(new DueLoan(rs.getLong("id"), rs.getObject("due_date", LocalDate.class))));
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    /*
+     * Tek ifadede (data-modifying CTE):
+     *   lost      -> ödünç kayıtları kayıp olarak işaretlenir
+     *   lost_books-> kitaplar LOST yapılır
+     *   penalties -> kullanıcı başına kayıp sayısı ve yeni izin hesaplanır. Her kayıp kitap izni bir kademe düşürür
+     *                (FULL -> LIMITED -> UNABLE), yani FULL bir kullanıcı aynı gece iki kitap kaybederse UNABLE olur
+     *   penalized -> kullanıcı sayaçları ve izinleri güncellenir
+     * Dolaşım olayları (MARKED_LOST, PRIVILEGE_CHANGED) aynı ifadede deftere yazılır.
+     */
+    private static String sweepSql(String filter) {
+        return "WITH lost AS (" +
+                "  UPDATE borrowed_books b SET lost = true WHERE " + OVERDUE + filter + " RETURNING b.id, b.book_id, b.user_id" +
+                "), lost_books AS (" +
+                "  UPDATE books bk SET status = 'LOST', version = bk.version + 1, last_modified_at = CURRENT_TIMESTAMP " +
+                "  FROM lost WHERE bk.id = lost.book_id RETURNING bk.id" +
+                "), penalties AS (" +
+                "  SELECT u.id AS user_id, count(*) AS lost_count, u.borrowing_privilege AS previous_privilege, " +
+                "         CASE WHEN u.borrowing_privilege = 'FULL' AND count(*) = 1 THEN 'LIMITED' ELSE 'UNABLE' END AS new_privilege " +
+                "  FROM lost JOIN users u ON u.id = lost.user_id GROUP BY u.id, u.borrowing_privilege" +
+                "), penalized AS (" +
+                "  UPDATE users u SET lost_book_count = COALESCE(u.lost_book_count, 0) + p.lost_count, borrowing_privilege = p.new_privilege " +
+                "  FROM penalties p WHERE u.id = p.user_id " +
+                "  RETURNING u.id, p.previous_privilege <> p.new_privilege AS privilege_changed" +
+                "), lost_events AS (" +
+                "  INSERT INTO circulation_events (event_type, book_id, user_id, loan_id) " +
+                "  SELECT 'MARKED_LOST', book_id, user_id, id FROM lost ORDER BY id RETURNING id" +
+                "), privilege_events AS (" +
+                "  INSERT INTO circulation_events (event_type, user_id, detail) " +
+                "  SELECT 'PRIVILEGE_CHANGED', user_id, new_privilege FROM penalties WHERE previous_privilege <> new_privilege " +
+                "  ORDER BY user_id RETURNING id" +
+                ") " +
+                "SELECT (SELECT count(*) FROM lost) AS loans, " +
+                "       (SELECT array_agg(id ORDER BY id) FROM lost_books) AS book_ids, " +
+                "       (SELECT count(*) FROM penalized) AS users, " +
+                "       (SELECT count(*) FROM penalized WHERE privilege_changed) AS privileges_changed, " +
+                "       (SELECT count(*) FROM lost_events) + (SELECT count(*) FROM privilege_events) AS events";
+    }
+}
@@ -1,12 +1,23 @@
 package io.github.SenaUstun_Dev.library_management.repository;
 
 import io.github.SenaUstun_Dev.library_management.entity.Publisher;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface PublisherRepository extends JpaRepository<Publisher, Long> {
-    Optional<Publisher> findByNameIgnoreCase(String publisherName);
+    // idx_publishers_lower_name indeksini kullanır
+    @Query(value = "SELECT * FROM publishers p WHERE lower(p.name) = lower(:name) ORDER BY p.id LIMIT 1", nativeQuery = true)
+    Optional<Publisher> findByNameIgnoreCase(@Param("name") String publisherName);
+
+    @Query("SELECT new io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion(1L, p.version, p.lastModifiedAt) FROM Publisher p WHERE p.id = :id")
+    Optional<ResourceVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion(COUNT(p), COALESCE(SUM(p.version), 0L), MAX(p.lastModifiedAt)) FROM Publisher p")
+    ResourceVersion findCollectionVersion();
 }
@@ -0,0 +1,11 @@
+package io.github.SenaUstun_Dev.library_management.repository.projection;
+
+/**
+ * Bekleme sırasındaki bir kaydın bellek içi sıra için gereken hali.
+ */
+public record HoldQueueEntry(
+        Long holdId,
+        Long bookId,
+        Long userId
+) {
+}
@@ -0,0 +1,25 @@
+package io.github.SenaUstun_Dev.library_management.repository.projection;
+
+import java.time.LocalDate;
+
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+
+/**
+ * BorrowedBookResponse'un ihtiyaç duyduğu kolonlar; ödünç, kullanıcı ve kitap tek JOIN'le okunur,
+ * entity (ve kitabın koleksiyonları) yüklenmez.
+ */
+public record LoanView(
+        Long id,
+        LocalDate borrowDate,
+        LocalDate dueDate,
+        LocalDate actualReturnDate,
+        boolean lost,
+        String username,
+        String email,
+        String firstName,
+        String lastName,
+        Long bookId,
+        String bookName,
+        BookStatus bookStatus
+) {
+}
@@ -0,0 +1,24 @@
+package io.github.SenaUstun_Dev.library_management.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Bir kaydın ya da tüm koleksiyonun sürüm özeti; DTO oluşturmadan koşullu GET (ETag / Last-Modified) için okunur.
+ * Tek kayıt için count = 1 ve versionSum = kaydın version değeridir. Koleksiyonda ekleme/silme count'u,
+ * güncelleme versionSum'ı değiştirir; bu yüzden üçlü birlikte koleksiyonun içeriğini temsil eder.
+ */
+public record ResourceVersion(
+        Long count,
+        Long versionSum,
+        Instant lastModified // Koleksiyon boşsa null
+) {
+
+    public String eTag() {
+        return count + "-" + versionSum + "-" + lastModifiedMillis();
+    }
+
+    // WebRequest.checkNotModified için; -1 Last-Modified kontrolünü devre dışı bırakır
+    public long lastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.toEpochMilli();
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.SenaUstun_Dev.library_management.scheduling;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Birden fazla replika çalışırken zamanlanmış bir işin aynı anda tek düğümde çalışmasını sağlar.
+ * <p>
+ * Kilit, havuzdan alınan ayrı bir bağlantı üzerinde PostgreSQL oturum seviyesinde advisory lock'tur
+ * (pg_try_advisory_lock). İş bitince kilit bırakılır ve bağlantı havuza döner. Kilidi tutan düğüm ölürse bağlantısı
+ * kapanır ve PostgreSQL kilidi kendiliğinden bırakır; başka bir düğüm sonraki denemesinde kilidi alabilir.
+ * Dış bir koordinatör gerekmez. İş çalışırken havuzdan fazladan bir bağlantı kullanılır.
+ * <p>
+ * Metrikler: library.jobs.lock.wait (job, result=acquired|skipped) ve library.jobs.run (job, outcome=success|failure).
+ */
+@Component
+@Slf4j
+public class ClusterJobLock {
+
+    // Advisory lock anahtarının ilk yarısı; uygulamanın kilitlerini aynı veritabanını kullanan diğer kilitlerden ayırır
+    private static final int LOCK_NAMESPACE = 0x4C4D53; // "LMS"
+    private static final long RETRY_INTERVAL_MS = 1_000;
+
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final Duration waitTimeout;
+
+    public ClusterJobLock(DataSource dataSource,
+                          MeterRegistry meterRegistry,
+                          @Value("${library.jobs.lock.wait-timeout}") Duration waitTimeout) {
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * Kilit alınabilirse işi bu düğümde çalıştırır. Kilit wait-timeout süresi içinde alınamazsa (iş başka bir düğümde
+     * çalışıyor) işi atlar.
+     *
+     * @return iş bu düğümde çalıştıysa true
+     */
+    public boolean runExclusively(String jobName, Runnable job) {
+        long waitStartedAt = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean acquired = acquire(connection, jobName);
+            waitTimer(jobName, acquired).record(System.nanoTime() - waitStartedAt, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                log.info("'{}' işi başka bir düğümde çalışıyor, bu düğümde atlandı", jobName);
+                return false;
+            }
+
+            long runStartedAt = System.nanoTime();
+            boolean succeeded = false;
+            try {
+                job.run();
+                succeeded = true;
+            } finally {
+                runTimer(jobName, succeeded).record(System.nanoTime() - runStartedAt, TimeUnit.NANOSECONDS);
+                release(connection, jobName);
+            }
+            return true;
+        } catch (SQLException e) {
+            throw new IllegalStateException("'" + jobName + "' işi için küme kilidi alınamadı", e);
+        }
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private boolean acquire(Connection connection, String jobName) throws SQLException {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            if (tryLock(connection, jobName)) {
+                return true;
+            }
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(RETRY_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private boolean tryLock(Connection connection, String jobName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?, hashtext(?))")) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setString(2, jobName);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    // Kilit bırakılamazsa bağlantı havuza kilitli dönmesin diye kapatılır (oturum kapanınca kilit de düşer)
+    private void release(Connection connection, String jobName) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?, hashtext(?))")) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setString(2, jobName);
+            statement.execute();
+        } catch (SQLException e) {
+            log.warn("'{}' işinin küme kilidi bırakılamadı, bağlantı havuzdan çıkarılıyor", jobName, e);
+            try {
+                connection.abort(Runnable::run);
+            } catch (SQLException abortFailure) {
+                e.addSuppressed(abortFailure);
+            }
+        }
+    }
+
+    private Timer waitTimer(String jobName, boolean acquired) {
+        return Timer.builder("library.jobs.lock.wait")
+                .description("Zamanlanmış işin küme kilidini alma süresi")
+                .tag("job", jobName)
+                .tag("result", acquired ? "acquired" : "skipped")
+                .register(meterRegistry);
+    }
+
+    private Timer runTimer(String jobName, boolean succeeded) {
+        return Timer.builder("library.jobs.run")
+                .description("Küme kilidi altında çalışan zamanlanmış işin süresi")
+                .tag("job", jobName)
+                .tag("outcome", succeeded ? "success" : "failure")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,275 @@
+package io.github.SenaUstun_Dev.library_management.scheduling;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.SenaUstun_Dev.library_management.repository.OverdueSweepRepository;
+import io.github.SenaUstun_Dev.library_management.service.OverdueLoanSweeper;
+import io.github.SenaUstun_Dev.library_management.service.OverdueLoanSweeper.Summary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Açık ödünçlerin vadesini bekleyen bellek içi gecikme kuyruğu; vadesi geçen ödünç gece yarısı taramasını beklemeden
+ * kayıp olarak işaretlenir.
+ * <p>
+ * Bir ödüncün tetiklenme zamanı vade gününün bittiği gece yarısı (due_date + 1, 00:00) artı ödünç id'sinden türetilen
+ * sabit bir kaydırmadır. Kaydırmalar spread süresine dağılır; veritabanı işi gece yarısında toplanmaz, güne yayılır.
+ * Zamanı gelen ödünçler küçük gruplar halinde, gece taramasıyla aynı küme tabanlı SQL ile (önce kullanıcı kilidi) işlenir.
+ * <p>
+ * Kuyruğun kalıcı kaynağı borrowed_books tablosudur: lider düğüm, liderliği aldığında ve her saat vadesi horizon
+ * içindeki açık ödünçleri yükler. Ödünç alma kuyruğa ekler, iade çıkarır (commit sonrasında). İade edilen kayıt
+ * kuyruktan silinmez, sadece indeksten çıkar ve zamanı gelince atlanır.
+ * <p>
+ * Kuyruğu kümede tek bir düğüm işler: ayrı bir iş parçacığı {@link ClusterJobLock} ile liderlik kilidini alır ve
+ * düğüm kapanana kadar tutar (havuzdan bir bağlantı kalıcı olarak kullanılır). Diğer düğümler kilidi
+ * library.jobs.takeover-check-interval-ms aralığıyla dener; lider ölürse bağlantısı kapanır, kilit düşer ve başka
+ * bir düğüm liderliği alıp kuyruğu veritabanından yeniden yükler. Lider olmayan düğümler zamanı gelen kayıtlarını
+ * işlemeden atar: horizon yeniden yükleme aralığından uzun olduğu için lider aynı ödünçleri zaten kuyruğunda tutar.
+ * Liderlik geçişinde aynı ödüncün iki kez tetiklenmesi zararsızdır; SQL sadece açık, işaretlenmemiş ödünçleri günceller.
+ * <p>
+ * Metrik: library.loans.due-queue.size (bekleyen ödünç sayısı).
+ */
+@Component
+@Slf4j
+public class DueDateQueue {
+
+    private static final String DUE_DATE_QUEUE_JOB = "due-date-queue";
+    // İşlenemeyen grup bu kadar sonra tekrar denenir
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+    // Ödünç id'sini kaydırma aralığına dağıtmak için çarpan (Fibonacci hashing)
+    private static final long SPREAD_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final OverdueSweepRepository overdueSweepRepository;
+    private final OverdueLoanSweeper overdueLoanSweeper;
+    private final ClusterJobLock clusterJobLock;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+    private final Duration spread;
+    private final int horizonDays;
+    private final int batchSize;
+    private final long leaderCheckIntervalMs;
+
+    private final DelayQueue<Deadline> queue = new DelayQueue<>();
+    // Ödünç id'sine göre geçerli tetikleme; kuyrukta olup burada olmayan kayıtlar atlanır
+    private final Map<Long, Deadline> pending = new ConcurrentHashMap<>();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name(DUE_DATE_QUEUE_JOB).daemon(true).factory());
+    private volatile boolean leader;
+
+    public DueDateQueue(OverdueSweepRepository overdueSweepRepository,
+                        OverdueLoanSweeper overdueLoanSweeper,
+                        ClusterJobLock clusterJobLock,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${library.loans.due-queue.enabled}") boolean enabled,
+                        @Value("${library.loans.due-queue.spread}") Duration spread,
+                        @Value("${library.loans.due-queue.horizon-days}") int horizonDays,
+                        @Value("${library.loans.due-queue.batch-size}") int batchSize,
+                        @Value("${library.jobs.takeover-check-interval-ms}") long leaderCheckIntervalMs) {
+        if (spread.isNegative() || spread.compareTo(Duration.ofDays(1)) > 0 || horizonDays < 1 || batchSize < 1) {
+            throw new IllegalArgumentException(
+                    "library.loans.due-queue: spread 0-24 saat, horizon-days ve batch-size en az 1 olmalıdır");
+        }
+        this.overdueSweepRepository = overdueSweepRepository;
+        this.overdueLoanSweeper = overdueLoanSweeper;
+        this.clusterJobLock = clusterJobLock;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.spread = spread;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+        this.leaderCheckIntervalMs = leaderCheckIntervalMs;
+        Gauge.builder("library.loans.due-queue.size", pending, Map::size).register(meterRegistry);
+    }
+
+    private record Deadline(long loanId, long fireAtMillis) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(fireAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(fireAtMillis, ((Deadline) other).fireAtMillis);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            worker.execute(this::run);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    // Sadece lider yükler; diğer düğümler kuyruğu işlemediği için tabloyu okumaz
+    @Scheduled(cron = "${library.loans.due-queue.reseed-cron}")
+    public void reseed() {
+        if (!enabled || !leader) {
+            return;
+        }
+        AtomicInteger added = new AtomicInteger();
+        readOnlyTransaction.executeWithoutResult(status -> overdueSweepRepository.forEachOpenLoanDueBefore(horizon(),
+                loan -> {
+                    if (add(new Deadline(loan.loanId(), fireAtMillis(loan.loanId(), loan.dueDate())))) {
+                        added.incrementAndGet();
+                    }
+                }));
+        log.info("Vade kuyruğu yüklendi: {} yeni, toplam {} ödünç bekliyor", added.get(), pending.size());
+    }
+
+    // Yeni ödünç commit sonrasında kuyruğa girer; vadesi horizon dışındaysa saatlik yeniden yükleme ekler
+    public void schedule(Long loanId, LocalDate dueDate) {
+        if (enabled && dueDate.isBefore(horizon())) {
+            afterCommit(() -> add(new Deadline(loanId, fireAtMillis(loanId, dueDate))));
+        }
+    }
+
+    // İade edilen ödünç commit sonrasında kuyruktan düşer
+    public void cancel(Long loanId) {
+        if (enabled) {
+            afterCommit(() -> pending.remove(loanId));
+        }
+    }
+
+    /**
+     * Gece yarısı taramasının kesim tarihi. Kuyruk kapalıysa bugündür; açıksa sadece kuyruğun zaten işlemiş olması
+     * gereken ödünçler (vadesi spread süresinden daha önce dolmuş olanlar) taranır, gece yarısı iş yığılmaz.
+     */
+    public LocalDate sweepCutoff(LocalDate today) {
+        if (!enabled) {
+            return today;
+        }
+        long spreadDays = (spread.toMillis() + Duration.ofDays(1).toMillis() - 1) / Duration.ofDays(1).toMillis();
+        return today.minusDays(spreadDays);
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    // Liderlik kilidi alınamazsa zamanı gelen kayıtlar atılır ve bir süre sonra tekrar denenir
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (!clusterJobLock.runExclusively(DUE_DATE_QUEUE_JOB, this::lead)) {
+                    discardDue();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Vade kuyruğu liderliği bir hata nedeniyle bırakıldı, tekrar denenecek", e);
+            }
+            try {
+                Thread.sleep(leaderCheckIntervalMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Liderlik kilidi tutulduğu sürece: kuyruğu yükler, sonra zamanı gelen kayıtları bekleyip işler
+    private void lead() {
+        leader = true;
+        log.info("Vade kuyruğu liderliği alındı");
+        try {
+            reseed();
+            List<Deadline> due = new ArrayList<>(batchSize);
+            while (true) {
+                due.add(queue.take());
+                queue.drainTo(due, batchSize - 1);
+                process(due);
+                due.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            leader = false;
+        }
+    }
+
+    private void discardDue() {
+        List<Deadline> due = new ArrayList<>();
+        queue.drainTo(due);
+        due.forEach(deadline -> pending.remove(deadline.loanId(), deadline));
+    }
+
+    private void process(List<Deadline> due) {
+        List<Long> loanIds = due.stream()
+                .filter(deadline -> pending.remove(deadline.loanId(), deadline))
+                .map(Deadline::loanId)
+                .toList();
+        if (loanIds.isEmpty()) {
+            return;
+        }
+        try {
+            Summary summary = overdueLoanSweeper.sweepLoans(LocalDate.now(), loanIds);
+            if (summary.loansMarkedLost() > 0) {
+                log.info("Vadesi geçen {} ödünç kayıp olarak işaretlendi - kitap: {}, izni düşürülen kullanıcı: {}",
+                        summary.loansMarkedLost(), summary.booksMarkedLost(), summary.privilegesChanged());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Vadesi geçen {} ödünç işlenemedi, {} sonra tekrar denenecek", loanIds.size(), RETRY_DELAY, e);
+            long retryAt = System.currentTimeMillis() + RETRY_DELAY.toMillis();
+            loanIds.forEach(loanId -> add(new Deadline(loanId, retryAt)));
+        }
+    }
+
+    private boolean add(Deadline deadline) {
+        if (pending.putIfAbsent(deadline.loanId(), deadline) != null) {
+            return false;
+        }
+        queue.add(deadline);
+        return true;
+    }
+
+    private LocalDate horizon() {
+        return LocalDate.now().plusDays(horizonDays);
+    }
+
+    // Vade gününü izleyen gece yarısı + id'den türetilen kaydırma; her düğüm aynı ödünç için aynı zamanı hesaplar
+    private long fireAtMillis(long loanId, LocalDate dueDate) {
+        long midnight = dueDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long spreadMillis = spread.toMillis();
+        return spreadMillis == 0 ? midnight : midnight + Math.floorMod(loanId * SPREAD_MULTIPLIER, spreadMillis);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.SenaUstun_Dev.library_management.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import io.github.SenaUstun_Dev.library_management.entity.Author;
+import io.github.SenaUstun_Dev.library_management.entity.Book;
+import io.github.SenaUstun_Dev.library_management.entity.BookGenre;
+import io.github.SenaUstun_Dev.library_management.entity.Publisher;
+
+/**
+ * Bir kitabın arama indeksine giren hali: normalize edilmiş terimler ve her terimin alan ağırlığı.
+ * Aynı terim birden fazla alanda geçiyorsa en yüksek ağırlık tutulur.
+ */
+public record BookSearchDocument(Long bookId, Map<String, Integer> termWeights) {
+
+    static final int NAME_WEIGHT = 4;
+    static final int AUTHOR_WEIGHT = 3;
+    static final int PUBLISHER_WEIGHT = 2;
+    static final int GENRE_WEIGHT = 1;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Kitabın ilişkileri yüklü olmalıdır (transaction içinde ya da Book.catalog grafiği ile okunmuş).
+     */
+    public static BookSearchDocument from(Book book) {
+        Map<String, Integer> weights = new HashMap<>();
+        addTerms(weights, book.getName(), NAME_WEIGHT);
+
+        if (book.getAuthors() != null) {
+            for (Author author : book.getAuthors()) {
+                addTerms(weights, author.getPenName(), AUTHOR_WEIGHT);
+                addTerms(weights, author.getFirstName(), AUTHOR_WEIGHT);
+                addTerms(weights, author.getSecondName(), AUTHOR_WEIGHT);
+            }
+        }
+        if (book.getPublishers() != null) {
+            for (Publisher publisher : book.getPublishers()) {
+                addTerms(weights, publisher.getName(), PUBLISHER_WEIGHT);
+            }
+        }
+        if (book.getGenres() != null) {
+            for (BookGenre genre : book.getGenres()) {
+                addTerms(weights, genre.getName(), GENRE_WEIGHT);
+            }
+        }
+        return new BookSearchDocument(book.getId(), Map.copyOf(weights));
+    }
+
+    /**
+     * Büyük/küçük harf ve aksan farklarını siler ("İstanbul", "istanbul", "ıstanbul" aynı terime düşer)
+     * ve metni harf/rakam dışındaki karakterlerden böler.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD))
+                .replaceAll("")
+                .replace('ı', 'i');
+        for (String token : TOKEN_SEPARATOR.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, weight, Math::max);
+        }
+    }
+}
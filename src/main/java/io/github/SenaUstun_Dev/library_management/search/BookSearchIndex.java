@@ -0,0 +1,202 @@
+package io.github.SenaUstun_Dev.library_management.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Kitap adı, yazar adları, yayıncı ve tür adları üzerinde bellek içi ters indeks (term -> kitap id'leri).
+ * <p>
+ * Okumalar kilitsizdir; yazmalar tek bir kilit ile sıralanır (katalog yazmaları seyrek).
+ * Sorgu terimleri önek olarak eşleşir, tüm terimler eşleşmelidir (AND) ve sonuçlar alan ağırlıklarına göre sıralanır.
+ * <p>
+ * İndeks her replikada ayrıdır; bu düğümdeki yazmalar commit sonrası hemen, diğer düğümlerdeki yazmalar
+ * {@link BookSearchIndexer#refresh()} ile gecikmeli olarak yansır.
+ */
+@Component
+public class BookSearchIndex {
+
+    // Seçicilik tahmininde bir önek için sayılan en fazla indeks terimi ("a" gibi kısa önekler için sınır).
+    // Sınır sadece tahmini keser; aday olarak seçilen önek aralığı her zaman tamamen taranır.
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, BookSearchDocument> documents = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public void index(BookSearchDocument document) {
+        writeLock.lock();
+        try {
+            BookSearchDocument previous = documents.put(document.bookId(), document);
+            if (previous != null) {
+                removePostings(previous);
+            }
+            for (String term : document.termWeights().keySet()) {
+                postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(document.bookId());
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        writeLock.lock();
+        try {
+            BookSearchDocument previous = documents.remove(bookId);
+            if (previous != null) {
+                removePostings(previous);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Transaction commit edildikten sonra indeksler; rollback olursa indeks değişmez.
+     */
+    public void indexAfterCommit(Collection<BookSearchDocument> documentsToIndex) {
+        List<BookSearchDocument> snapshot = List.copyOf(documentsToIndex);
+        runAfterCommit(() -> snapshot.forEach(this::index));
+    }
+
+    public void removeAfterCommit(Long bookId) {
+        runAfterCommit(() -> remove(bookId));
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Sorgudaki her terim önek olarak eşleşmelidir. Tam eşleşen terimler önek eşleşmelerinin iki katı puan alır.
+     *
+     * @return puana göre azalan sırada en fazla {@code limit} kitap id'si
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> queryTerms = BookSearchDocument.tokenize(query);
+        if (queryTerms.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        // Her sorgu terimi için eşleşen indeks terimleri; en seçici terim aday kümesini belirler.
+        // Diğer terimler aday dokümanın kendi terimleriyle kontrol edilir (score), genişletmeleri gerekmez.
+        NavigableMap<String, Set<Long>> candidates = null;
+        long smallestSize = Long.MAX_VALUE;
+        for (String queryTerm : queryTerms) {
+            NavigableMap<String, Set<Long>> matching = prefixRange(queryTerm);
+            if (matching.isEmpty()) {
+                return List.of(); // AND: eşleşmeyen bir terim varsa sonuç yok
+            }
+            long size = estimateSize(matching);
+            if (candidates == null || size < smallestSize) {
+                smallestSize = size;
+                candidates = matching;
+            }
+        }
+
+        PriorityQueue<ScoredBook> topResults = new PriorityQueue<>(ScoredBook.WORST_FIRST);
+        Set<Long> seen = new HashSet<>();
+        for (Set<Long> bookIds : candidates.values()) {
+            for (Long bookId : bookIds) {
+                if (!seen.add(bookId)) {
+                    continue;
+                }
+                BookSearchDocument document = documents.get(bookId);
+                int score = (document == null) ? 0 : score(document, queryTerms);
+                if (score == 0) {
+                    continue;
+                }
+                topResults.offer(new ScoredBook(bookId, score));
+                if (topResults.size() > limit) {
+                    topResults.poll();
+                }
+            }
+        }
+
+        List<ScoredBook> ordered = new ArrayList<>(topResults);
+        ordered.sort(ScoredBook.WORST_FIRST.reversed());
+        return ordered.stream().map(ScoredBook::bookId).toList();
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private NavigableMap<String, Set<Long>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    // Aralıktaki kitap sayısı; MAX_PREFIX_EXPANSIONS'tan fazla terim varsa saymak yerine en geniş kabul edilir
+    private long estimateSize(NavigableMap<String, Set<Long>> range) {
+        long size = 0;
+        int terms = 0;
+        for (Set<Long> bookIds : range.values()) {
+            if (++terms > MAX_PREFIX_EXPANSIONS) {
+                return Long.MAX_VALUE;
+            }
+            size += bookIds.size();
+        }
+        return size;
+    }
+
+    // Dokümanın tüm sorgu terimlerini içerip içermediğine bakar; içermiyorsa 0 döner
+    private int score(BookSearchDocument document, List<String> queryTerms) {
+        int total = 0;
+        for (String queryTerm : queryTerms) {
+            int best = 0;
+            for (Map.Entry<String, Integer> entry : document.termWeights().entrySet()) {
+                if (entry.getKey().startsWith(queryTerm)) {
+                    int points = entry.getKey().length() == queryTerm.length() ? entry.getValue() * 2 : entry.getValue();
+                    best = Math.max(best, points);
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private void removePostings(BookSearchDocument document) {
+        for (String term : document.termWeights().keySet()) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(document.bookId());
+                if (ids.isEmpty()) {
+                    postings.remove(term, ids);
+                }
+            }
+        }
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record ScoredBook(Long bookId, int score) {
+        // Eşit puanda daha küçük id (daha eski kayıt) önde gelir
+        static final Comparator<ScoredBook> WORST_FIRST = Comparator.comparingInt(ScoredBook::score)
+                .thenComparing(ScoredBook::bookId, Comparator.reverseOrder());
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.SenaUstun_Dev.library_management.search;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.SenaUstun_Dev.library_management.cache.BookResponseCache;
+import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Arama indeksini (ve replikalar arası değişikliklerde kitap yanıt önbelleğini) veritabanıyla senkron tutar.
+ * Uygulama ayağa kalktığında indeksi id sırasıyla parça parça doldurur; her parça ayrı bir read-only
+ * transaction'da okunur, böylece persistence context büyümez.
+ * <p>
+ * İndeks her replikada ayrı olduğu için başka düğümlerde eklenen/değişen kitaplar periyodik olarak last_modified_at
+ * üzerinden çekilir (idx_books_last_modified_at); aynı kitaplar bu düğümün yanıt önbelleğinden de silinir. Başka düğümde silinen kitaplar arama sonucu yüklenirken bulunamadığında
+ * indeksten çıkarılır.
+ */
+@Component
+@Slf4j
+public class BookSearchIndexer {
+
+    private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookResponseCache bookResponseCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int batchSize;
+    private final Duration refreshOverlap;
+    // Bu andan önce değişen kitaplar indekste; ilk yükleme bitene kadar null (periyodik yenileme bekler)
+    private volatile Instant refreshedUpTo;
+
+    public BookSearchIndexer(BookRepository bookRepository,
+                             BookSearchIndex bookSearchIndex,
+                             BookResponseCache bookResponseCache,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${library.search.index.rebuild-batch-size}") int batchSize,
+                             @Value("${library.search.index.refresh-overlap}") Duration refreshOverlap) {
+        this.bookRepository = bookRepository;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookResponseCache = bookResponseCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.batchSize = batchSize;
+        this.refreshOverlap = refreshOverlap;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Instant rebuildStartedAt = Instant.now();
+        long startedAt = System.currentTimeMillis();
+        long lastId = 0L;
+        boolean more = true;
+
+        while (more) {
+            final long after = lastId;
+            List<Long> ids = readOnlyTransaction.execute(status -> {
+                List<Long> batch = bookRepository.findIdsAfterId(after, PageRequest.of(0, batchSize));
+                if (!batch.isEmpty()) {
+                    bookRepository.findByIdIn(batch).stream()
+                            .map(BookSearchDocument::from)
+                            .forEach(bookSearchIndex::index);
+                }
+                return batch;
+            });
+            more = ids != null && ids.size() == batchSize;
+            if (ids != null && !ids.isEmpty()) {
+                lastId = ids.get(ids.size() - 1);
+            }
+        }
+
+        refreshedUpTo = rebuildStartedAt;
+        log.info("Kitap arama indeksi oluşturuldu: {} kitap, {} ms",
+                bookSearchIndex.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Son yenilemeden bu yana değişen kitapları yeniden indeksler ve yanıt önbelleğinden siler. Pencere refresh-overlap kadar geriden başlar:
+     * last_modified_at uygulama saatiyle yazılır ve uzun süren bir transaction geç commit olabilir; bu kayıtlar bir
+     * sonraki turda yakalanır. Aynı kitabın tekrar indekslenmesi zararsızdır.
+     */
+    @Scheduled(fixedDelayString = "${library.search.index.refresh-interval-ms}")
+    public void refresh() {
+        Instant since = refreshedUpTo;
+        if (since == null) {
+            return;
+        }
+        Instant startedAt = Instant.now();
+        List<Long> ids = readOnlyTransaction.execute(status -> bookRepository.findIdsModifiedSince(since.minus(refreshOverlap)));
+        if (ids != null) {
+            bookResponseCache.invalidate(ids);
+        }
+        for (int from = 0; ids != null && from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            readOnlyTransaction.executeWithoutResult(status -> bookRepository.findByIdIn(batch).stream()
+                    .map(BookSearchDocument::from)
+                    .forEach(bookSearchIndex::index));
+        }
+        refreshedUpTo = startedAt;
+        log.debug("Kitap arama indeksi yenilendi: {} kitap", ids == null ? 0 : ids.size());
+    }
+
+    /**
+     * Yazar/yayıncı/tür gibi birden fazla kitaba gömülü bir kayıt değiştiğinde ilgili kitapları yeniden indeksler.
+     * Açık bir transaction içinde çağrılmalıdır; indeks commit sonrası güncellenir.
+     */
+    public void reindex(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        bookSearchIndex.indexAfterCommit(bookRepository.findByIdIn(bookIds).stream()
+                .map(BookSearchDocument::from)
+                .toList());
+    }
+}
@@ -3,6 +3,7 @@ package io.github.SenaUstun_Dev.library_management.service;
 import io.github.SenaUstun_Dev.library_management.dto.request.CreateAuthorRequest;
 import io.github.SenaUstun_Dev.library_management.dto.request.UpdateAuthorRequest;
 import io.github.SenaUstun_Dev.library_management.dto.response.AuthorResponse;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
 
 import java.util.List;
 
@@ -15,4 +16,7 @@ public interface AuthorService {
     public List<AuthorResponse> findAllAuthors();
     public List<AuthorResponse> findAuthorsByCriteria(String penName, String firstName, String secondName);
 
+    public ResourceVersion findAuthorVersion(Long id);
+    public ResourceVersion findAllAuthorsVersion();
+
 }
@@ -0,0 +1,10 @@
+package io.github.SenaUstun_Dev.library_management.service;
+
+import java.util.List;
+
+import io.github.SenaUstun_Dev.library_management.dto.request.CreateBookRequest;
+import io.github.SenaUstun_Dev.library_management.dto.response.BulkBookCreateResponse;
+
+public interface BookBulkImportService {
+    public BulkBookCreateResponse addBooks(List<CreateBookRequest> requests);
+}
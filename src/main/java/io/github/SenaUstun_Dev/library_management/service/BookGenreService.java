@@ -3,6 +3,7 @@ package io.github.SenaUstun_Dev.library_management.service;
 import io.github.SenaUstun_Dev.library_management.dto.request.CreateBookGenreRequest;
 import io.github.SenaUstun_Dev.library_management.dto.request.UpdateBookGenreRequest;
 import io.github.SenaUstun_Dev.library_management.dto.response.BookGenreResponse;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
 
 import java.util.List;
 
@@ -14,4 +15,7 @@ public interface BookGenreService {
     public BookGenreResponse findBookGenreById(Long id);
     public BookGenreResponse findBookGenreByName(String name);
     public List<BookGenreResponse> findAllBookGenres();
+
+    public ResourceVersion findBookGenreVersion(Long id);
+    public ResourceVersion findAllBookGenresVersion();
 }
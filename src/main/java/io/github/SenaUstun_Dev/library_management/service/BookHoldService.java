@@ -0,0 +1,26 @@
+package io.github.SenaUstun_Dev.library_management.service;
+
+import java.util.List;
+
+import io.github.SenaUstun_Dev.library_management.dto.response.BookHoldResponse;
+import io.github.SenaUstun_Dev.library_management.entity.AppUser;
+
+public interface BookHoldService {
+    /*
+     * A member can join the waiting queue of a book that is currently BORROWED.
+     * Queue is FIFO per book; when the book is returned it is loaned directly to the first eligible member
+     * in the queue (see BorrowedBookServiceImpl.returnBook) and that hold is removed.
+     * */
+
+    // Ödünçteki kitap için sıraya girme
+    BookHoldResponse placeHold(AppUser user, Long bookId);
+
+    // Sıradan çıkma
+    void cancelHold(AppUser user, Long bookId);
+
+    // Kullanıcının bir kitap için sıradaki yeri
+    BookHoldResponse getHold(AppUser user, Long bookId);
+
+    // Kullanıcının tüm bekleme kayıtları (sıradaki yerleriyle)
+    List<BookHoldResponse> getHolds(AppUser user);
+}
@@ -1,22 +1,49 @@
 package io.github.SenaUstun_Dev.library_management.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Sort;
+
+import io.github.SenaUstun_Dev.library_management.dto.request.BookFacetSearchRequest;
+import io.github.SenaUstun_Dev.library_management.dto.request.BookSortField;
 import io.github.SenaUstun_Dev.library_management.dto.request.CreateBookRequest;
 import io.github.SenaUstun_Dev.library_management.dto.request.UpdateBookRequest;
+import io.github.SenaUstun_Dev.library_management.dto.response.BookFacetSearchResponse;
 import io.github.SenaUstun_Dev.library_management.dto.response.BookResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.CursorPageResponse;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
 
 public interface BookService {
+
+    // Kitap yanıtı ve aynı okumadan gelen sürümü; koşullu GET'te ETag gövdeyle eşleşsin diye birlikte döner
+    record VersionedBook(BookResponse book, ResourceVersion version) {
+    }
+
     public BookResponse addBook(CreateBookRequest request);
     public BookResponse updateBook(UpdateBookRequest request, Long id);
     public void deleteBook(Long id);
 
+    /**
+     * Yazar/yayıncı/tür gibi kitap yanıtına gömülü bir kayıt değiştiğinde etkilenen kitapları günceller:
+     * önbellekten düşürür, sürümlerini artırır (ETag, replikalar arası yenileme) ve yeniden indeksler.
+     * Açık bir transaction içinde çağrılmalıdır.
+     */
+    public void touchBooks(Collection<Long> bookIds);
+
     public BookResponse findBookById(Long id);
+    public ResourceVersion findBookVersion(Long id);
+    public VersionedBook findBookWithVersion(Long id, ResourceVersion expected);
     public BookResponse findBookByName(String name);
-    public List<BookResponse> findAll();
+    public CursorPageResponse<BookResponse> findAll(String cursor, int size, BookSortField sortField, Sort.Direction direction);
     public List<BookResponse> findBookByAuthor(String author);
     public List<BookResponse> findBookByGenre(String genre);
     public List<BookResponse> findBookByPublisher(String publisher);
+    public List<BookResponse> searchBooks(String query, int limit);
+    public BookFacetSearchResponse searchBooksWithFacets(BookFacetSearchRequest request);
+    public void streamAllBooks(OutputStream outputStream) throws IOException;
 
     public List<BookResponse> findLostBooks();
     public List<BookResponse> findActiveBooks();
@@ -2,8 +2,14 @@ package io.github.SenaUstun_Dev.library_management.service;
 
 import java.util.List;
 
+import io.github.SenaUstun_Dev.library_management.dto.request.BatchCirculationRequest;
 import io.github.SenaUstun_Dev.library_management.dto.request.BorrowBookRequest;
+import io.github.SenaUstun_Dev.library_management.dto.request.LoanHistoryRequest;
+import io.github.SenaUstun_Dev.library_management.dto.response.ActiveLoanSummaryResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.BatchCirculationResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.BookAvailabilityResponse;
 import io.github.SenaUstun_Dev.library_management.dto.response.BorrowedBookResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.CursorPageResponse;
 import io.github.SenaUstun_Dev.library_management.entity.AppUser;
 
 public interface BorrowedBookService {
@@ -24,18 +30,30 @@ public interface BorrowedBookService {
     // Kitap iade işlemi
     BorrowedBookResponse returnBook(AppUser user, Long bookId);
     
+    // Masa başı toplu ödünç verme: sepet tek transaction'da işlenir, her kitap için ayrı sonuç döner
+    BatchCirculationResponse checkoutBooks(AppUser user, BatchCirculationRequest request);
+    
+    // Masa başı toplu iade alma
+    BatchCirculationResponse checkinBooks(AppUser user, BatchCirculationRequest request);
+    
     // Kullanıcının aktif olarak ödünç aldığı kitaplar
     List<BorrowedBookResponse> getCurrentlyBorrowedBooks(AppUser user);
     
+    // Kullanıcının açık ödünç özeti (dolaşım projeksiyonundan, veritabanına gitmeden)
+    ActiveLoanSummaryResponse getActiveLoanSummary(AppUser user);
+    
+    // Kitabın ödünç durumu ve bekleme sırası uzunluğu (dolaşım projeksiyonundan)
+    BookAvailabilityResponse getBookAvailability(Long bookId);
+    
     // Kullanıcının geçmiş ödünç aldığı kitaplar 
-    List<BorrowedBookResponse> getBorrowedBookHistory(AppUser user);
+    CursorPageResponse<BorrowedBookResponse> getBorrowedBookHistory(AppUser user, LoanHistoryRequest request);
     
     // [ADMIN] Herhangi bir kullanıcının aktif olarak ödünç aldığı kitaplar
     List<BorrowedBookResponse> getUserCurrentlyBorrowedBooks(Long userId);
     
     // [ADMIN] Herhangi bir kullanıcının geçmiş ödünç kitap geçmişi
-    List<BorrowedBookResponse> getUserBorrowedBookHistory(Long userId);
+    CursorPageResponse<BorrowedBookResponse> getUserBorrowedBookHistory(Long userId, LoanHistoryRequest request);
     
     // [ADMIN] Kayıp olarak işaretlenmiş tüm ödünç kitapları getir
-    List<BorrowedBookResponse> getAllLostBooks();
+    CursorPageResponse<BorrowedBookResponse> getAllLostBooks(LoanHistoryRequest request);
 }
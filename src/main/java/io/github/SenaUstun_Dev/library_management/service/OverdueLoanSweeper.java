@@ -0,0 +1,221 @@
+package io.github.SenaUstun_Dev.library_management.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.SenaUstun_Dev.library_management.cache.BookResponseCache;
+import io.github.SenaUstun_Dev.library_management.repository.JobCheckpointRepository;
+import io.github.SenaUstun_Dev.library_management.repository.JobCheckpointRepository.Checkpoint;
+import io.github.SenaUstun_Dev.library_management.repository.OverdueSweepRepository;
+import io.github.SenaUstun_Dev.library_management.repository.OverdueSweepRepository.SweepResult;
+import io.github.SenaUstun_Dev.library_management.repository.OverdueSweepRepository.SweepScope;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Gecikme taramasının çalıştırma biçimleri.
+ * <ul>
+ *   <li>SINGLE: tüm gecikmiş ödünçler tek transaction'da işlenir.</li>
+ *   <li>CHUNKED: gecikmiş ödünçler borrowed_books.id üzerinden keyset ile chunk-size'lık parçalara bölünür, her parça
+ *   kendi transaction'ında işlenir ve checkpoint aynı transaction'da ilerletilir. Bir parçanın hatası sadece o parçayı
+ *   geri alır; yarıda kalan tarama (hata, çökme, yeniden dağıtım) aynı gün checkpoint'ten devam eder.</li>
+ *   <li>PARALLEL: ödünçler user_id mod parallelism ile bölümlere ayrılır ve her bölüm sınırlı bir havuzda kendi iş
+ *   parçacığında, CHUNKED ile aynı şekilde (kendi checkpoint'i ve parça başına transaction'ı ile) işlenir. Bir kullanıcının
+ *   tüm ödünçleri aynı bölüme düştüğü için bölümler aynı kullanıcı, ödünç veya kitap satırı için yarışmaz.</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class OverdueLoanSweeper {
+
+    public static final String JOB_NAME = "overdue-sweep";
+
+    public enum Mode {
+        SINGLE,
+        CHUNKED,
+        PARALLEL
+    }
+
+    private final OverdueSweepRepository overdueSweepRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final BookResponseCache bookResponseCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Mode mode;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public OverdueLoanSweeper(OverdueSweepRepository overdueSweepRepository,
+                              JobCheckpointRepository jobCheckpointRepository,
+                              BookResponseCache bookResponseCache,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${library.loans.overdue.mode}") Mode mode,
+                              @Value("${library.loans.overdue.chunk-size}") int chunkSize,
+                              @Value("${library.loans.overdue.parallelism}") int parallelism) {
+        if (chunkSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("library.loans.overdue.chunk-size ve parallelism en az 1 olmalıdır");
+        }
+        this.overdueSweepRepository = overdueSweepRepository;
+        this.jobCheckpointRepository = jobCheckpointRepository;
+        this.bookResponseCache = bookResponseCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mode = mode;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    public record Summary(int chunks, int loansMarkedLost, int booksMarkedLost, int usersPenalized, int privilegesChanged) {
+
+        static final Summary EMPTY = new Summary(0, 0, 0, 0, 0);
+
+        Summary plus(SweepResult result) {
+            return new Summary(
+                    chunks + 1,
+                    loansMarkedLost + result.loansMarkedLost(),
+                    booksMarkedLost + result.lostBookIds().size(),
+                    usersPenalized + result.usersPenalized(),
+                    privilegesChanged + result.privilegesChanged());
+        }
+
+        Summary plus(Summary other) {
+            return new Summary(
+                    chunks + other.chunks,
+                    loansMarkedLost + other.loansMarkedLost,
+                    booksMarkedLost + other.booksMarkedLost,
+                    usersPenalized + other.usersPenalized,
+                    privilegesChanged + other.privilegesChanged);
+        }
+    }
+
+    private record Chunk(long endId, SweepResult result) {
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public Summary sweep(LocalDate today) {
+        return switch (mode) {
+            case SINGLE -> sweepAtOnce(today);
+            case CHUNKED -> sweepInChunks(SweepScope.all(today), JOB_NAME);
+            case PARALLEL -> sweepInParallel(today);
+        };
+    }
+
+    /**
+     * Vade kuyruğundan gelen ödünçleri tek transaction'da işler. Bu arada iade edilmiş veya kayıp işaretlenmiş
+     * ödünçler SQL koşulu nedeniyle atlanır; aynı ödünç birden fazla düğümde işlense de ikinci çalıştırma etkisizdir.
+     */
+    public Summary sweepLoans(LocalDate today, Collection<Long> loanIds) {
+        if (loanIds.isEmpty()) {
+            return Summary.EMPTY;
+        }
+        SweepResult result = transactionTemplate.execute(status -> sweepScope(SweepScope.loans(today, loanIds)));
+        return result == null ? Summary.EMPTY : Summary.EMPTY.plus(result);
+    }
+
+    // Bugün başlayıp bitmemiş bir parçalı tarama var mı (ör. düğüm tarama sırasında yeniden başlatıldı)
+    public boolean hasInterruptedRun(LocalDate today) {
+        List<String> checkpointNames = switch (mode) {
+            case SINGLE -> List.of();
+            case CHUNKED -> List.of(JOB_NAME);
+            case PARALLEL -> IntStream.range(0, parallelism).mapToObj(this::partitionCheckpointName).toList();
+        };
+        return checkpointNames.stream().anyMatch(name -> jobCheckpointRepository.find(name)
+                .filter(checkpoint -> checkpoint.runDate().equals(today) && !checkpoint.completed())
+                .isPresent());
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private Summary sweepAtOnce(LocalDate today) {
+        SweepResult result = transactionTemplate.execute(status -> sweepScope(SweepScope.all(today)));
+        return result == null ? Summary.EMPTY : Summary.EMPTY.plus(result);
+    }
+
+    private Summary sweepInParallel(LocalDate today) {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, Thread.ofPlatform().name(JOB_NAME + "-", 0).factory());
+        try {
+            List<Future<Summary>> partitions = IntStream.range(0, parallelism)
+                    .mapToObj(partition -> executor.submit(() -> sweepInChunks(
+                            SweepScope.partition(today, partition, parallelism), partitionCheckpointName(partition))))
+                    .toList();
+
+            // Bir bölümün hatası diğerlerini durdurmaz; tüm bölümler beklendikten sonra ilk hata fırlatılır
+            Summary summary = Summary.EMPTY;
+            RuntimeException failure = null;
+            for (int partition = 0; partition < partitions.size(); partition++) {
+                try {
+                    summary = summary.plus(partitions.get(partition).get());
+                } catch (ExecutionException e) {
+                    log.error("Gecikme taramasının {}. bölümü başarısız oldu", partition, e.getCause());
+                    if (failure == null) {
+                        failure = new IllegalStateException("Gecikme taramasının " + partition + ". bölümü başarısız oldu", e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Gecikme taraması kesildi", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return summary;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Summary sweepInChunks(SweepScope scope, String checkpointName) {
+        LocalDate today = scope.today();
+        long afterId = jobCheckpointRepository.find(checkpointName)
+                .filter(checkpoint -> checkpoint.runDate().equals(today) && !checkpoint.completed())
+                .map(Checkpoint::lastId)
+                .orElse(0L);
+        if (afterId > 0) {
+            log.info("Gecikme taraması ({}) checkpoint'ten devam ediyor, son işlenen ödünç ID: {}", checkpointName, afterId);
+        }
+
+        Summary summary = Summary.EMPTY;
+        while (true) {
+            SweepScope remaining = scope.range(afterId, Long.MAX_VALUE);
+            Chunk chunk = transactionTemplate.execute(status -> {
+                Optional<Long> chunkEnd = overdueSweepRepository.findChunkEnd(remaining, chunkSize);
+                if (chunkEnd.isEmpty()) {
+                    jobCheckpointRepository.save(checkpointName, today, remaining.afterId(), true);
+                    return null;
+                }
+                SweepResult result = sweepScope(remaining.range(remaining.afterId(), chunkEnd.get()));
+                jobCheckpointRepository.save(checkpointName, today, chunkEnd.get(), false);
+                return new Chunk(chunkEnd.get(), result);
+            });
+            if (chunk == null) {
+                return summary;
+            }
+            summary = summary.plus(chunk.result());
+            afterId = chunk.endId();
+        }
+    }
+
+    private SweepResult sweepScope(SweepScope scope) {
+        overdueSweepRepository.lockOverdueUsers(scope);
+        SweepResult result = overdueSweepRepository.sweep(scope);
+        bookResponseCache.invalidate(result.lostBookIds());
+        return result;
+    }
+
+    // Bölüm sayısı değişirse eski checkpoint'ler yeni bölümlere karışmasın diye isimde bölüm sayısı da bulunur
+    private String partitionCheckpointName(int partition) {
+        return JOB_NAME + "-p" + partition + "-of-" + parallelism;
+    }
+}
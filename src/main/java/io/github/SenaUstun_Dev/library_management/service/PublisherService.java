@@ -3,6 +3,7 @@ package io.github.SenaUstun_Dev.library_management.service;
 import io.github.SenaUstun_Dev.library_management.dto.request.CreatePublisherRequest;
 import io.github.SenaUstun_Dev.library_management.dto.request.UpdatePublisherRequest;
 import io.github.SenaUstun_Dev.library_management.dto.response.PublisherResponse;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
 
 import java.util.List;
 
@@ -13,4 +14,7 @@ public interface PublisherService {
 
     public PublisherResponse findPublisherById(Long id);
     public List<PublisherResponse> findAllPublishers();
+
+    public ResourceVersion findPublisherVersion(Long id);
+    public ResourceVersion findAllPublishersVersion();
 }
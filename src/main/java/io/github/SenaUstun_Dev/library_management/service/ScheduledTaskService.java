@@ -3,17 +3,17 @@ package io.github.SenaUstun_Dev.library_management.service;
 import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import io.github.SenaUstun_Dev.library_management.entity.AppUser;
-import io.github.SenaUstun_Dev.library_management.entity.Book;
-import io.github.SenaUstun_Dev.library_management.entity.BorrowedBook;
-import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
-import io.github.SenaUstun_Dev.library_management.entity.enums.BorrowingPrivilege;
-import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
-import io.github.SenaUstun_Dev.library_management.repository.BorrowedBookRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.SenaUstun_Dev.library_management.repository.AppUserRepository;
+import io.github.SenaUstun_Dev.library_management.repository.IdempotencyKeyRepository;
+import io.github.SenaUstun_Dev.library_management.scheduling.ClusterJobLock;
+import io.github.SenaUstun_Dev.library_management.scheduling.DueDateQueue;
+import io.github.SenaUstun_Dev.library_management.service.OverdueLoanSweeper.Summary;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -35,72 +35,87 @@ public class ScheduledTaskService {
      *                             is UNABLE do nothing. say its already UNABLE
      * */
 
-    private final BorrowedBookRepository borrowedBookRepository;
-    private final BookRepository bookRepository;
+    // Küme kilidi anahtarları: her iş tüm replikalarda aynı anda en fazla bir düğümde çalışır
+    private static final String OVERDUE_SWEEP_JOB = "overdue-sweep";
+    private static final String ACTIVE_LOAN_RECONCILE_JOB = "active-loan-reconcile";
+    private static final String IDEMPOTENCY_PURGE_JOB = "idempotency-purge";
+
+    private final OverdueLoanSweeper overdueLoanSweeper;
+    private final AppUserRepository appUserRepository;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ClusterJobLock clusterJobLock;
+    private final DueDateQueue dueDateQueue;
+    private final TransactionTemplate transactionTemplate;
 
+    /**
+     * İade tarihi geçmiş ödünçleri kayıp olarak işaretler. Kayıtlar belleğe yüklenmez: gecikmiş ödüncü olan kullanıcılar
+     * kilitlendikten sonra ödünç kayıtları, kitaplar, kullanıcı sayaçları/izinleri ve dolaşım olayları tek bir
+     * küme tabanlı ifadeyle güncellenir. Tek transaction'da ya da parçalar halinde çalışır (library.loans.overdue.mode).
+     * Vade kuyruğu açıkken ödünçler gün içinde vadeleri dolunca işaretlenir; bu tarama sadece kuyruğun kaçırdıklarına bakar.
+     */
     @Scheduled(cron = "0 0 0 * * ?") // Her gün gece yarısı (00:00:00) çalışır
-    @Transactional
     public void checkOverdueBooks() {
-        log.info("İade tarihi geçmiş kitapları kontrol etme görevi başlatıldı");
-
-        LocalDate today = LocalDate.now();
-
-        // Veritabanından doğrudan son iade tarihi geçmiş, iade edilmemiş ve kayıp olarak işaretlenmemiş kitapları getir
-        List<BorrowedBook> overdueBorrowedBooks = borrowedBookRepository.findByDueDateLessThanAndLostIsFalseAndActualReturnDateIsNull(today);
-
-        log.info("İade tarihi geçmiş ve işaretlenmemiş ödünç kitap sayısı: {}", overdueBorrowedBooks.size());
+        clusterJobLock.runExclusively(OVERDUE_SWEEP_JOB, this::sweepOverdueLoans);
+    }
 
-        // İade tarihi geçmiş kayıtları işaretle
-        for (BorrowedBook borrowedBook : overdueBorrowedBooks) {
-            log.info("İade tarihi geçmiş kitap bulundu - ID: {}, Kitap: {}, Kullanıcı: {}",
-                    borrowedBook.getId(),
-                    borrowedBook.getBook().getName(),
-                    borrowedBook.getUser().getUsername());
+    /**
+     * Yarıda kalmış parçalı taramayı devralır: düğüm tarama sırasında yeniden başlatıldıysa açılışta, taramayı
+     * yürüten düğüm öldüyse (kilidi bırakılmış ama checkpoint tamamlanmamış) periyodik kontrolde başka bir düğüm devam eder.
+     * Tarama hâlâ çalışıyorsa kilit alınamaz ve kontrol atlanır.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${library.jobs.takeover-check-interval-ms}", initialDelayString = "${library.jobs.takeover-check-interval-ms}")
+    public void resumeInterruptedOverdueSweep() {
+        if (overdueLoanSweeper.hasInterruptedRun(dueDateQueue.sweepCutoff(LocalDate.now()))) {
+            log.info("Yarıda kalan gecikme taraması bulundu, devam ediliyor");
+            checkOverdueBooks();
+        }
+    }
 
-                borrowedBook.setLost(true);
+    /**
+     * users.active_loan_count sayacını açık ödünç kayıtlarıyla karşılaştırır ve sapmaları düzeltir.
+     * Sapan kullanıcılar tek bir gruplu sorguyla bulunur; satırları id sırasıyla kilitlendikten sonra
+     * sayaçları yeni bir snapshot ile tek UPDATE'te yeniden hesaplanır (süren ödünç/iade işlemleri ezilmez).
+     */
+    @Scheduled(cron = "${library.loans.reconcile-cron}")
+    public void reconcileActiveLoanCounts() {
+        clusterJobLock.runExclusively(ACTIVE_LOAN_RECONCILE_JOB,
+                () -> transactionTemplate.executeWithoutResult(status -> reconcile()));
+    }
 
-            // Kitabın durumunu LOST olarak güncelle
-            Book book = borrowedBook.getBook();
-            book.setStatus(BookStatus.LOST);
-            bookRepository.save(book);
+    // Süresi dolan Idempotency-Key kayıtlarını temizler
+    @Scheduled(cron = "${library.idempotency.purge-cron}")
+    public void purgeExpiredIdempotencyKeys() {
+        clusterJobLock.runExclusively(IDEMPOTENCY_PURGE_JOB, () -> {
+            int deleted = idempotencyKeyRepository.deleteExpired();
+            log.debug("Süresi dolan {} idempotency anahtarı silindi", deleted);
+        });
+    }
 
-            // Kullanıcının kayıp kitap sayısını artır
-            AppUser user = borrowedBook.getUser();
-            user.setLostBookCount(user.getLostBookCount() + 1);
+    //>>>>>>>>>>>>>> HELPER METHODS
 
-            // Kullanıcının ödünç alma ayrıcalığını düşür
-            updateUserBorrowingPrivilege(user);
+    private void sweepOverdueLoans() {
+        LocalDate cutoff = dueDateQueue.sweepCutoff(LocalDate.now());
+        log.info("İade tarihi geçmiş kitapları kontrol etme görevi başlatıldı ({}, vade < {})", overdueLoanSweeper.mode(), cutoff);
 
-            // Değişiklikleri kaydet
-            borrowedBookRepository.save(borrowedBook);
-        }
+        long startedAt = System.nanoTime();
+        Summary summary = overdueLoanSweeper.sweep(cutoff);
 
-        log.info("İade tarihi geçmiş kitapları kontrol etme görevi tamamlandı");
+        log.info("İade tarihi geçmiş kitapları kontrol etme görevi tamamlandı - parça: {}, kayıp işaretlenen ödünç: {}, " +
+                        "kitap: {}, cezalandırılan kullanıcı: {}, izni düşürülen kullanıcı: {}, süre: {} ms",
+                summary.chunks(), summary.loansMarkedLost(), summary.booksMarkedLost(), summary.usersPenalized(),
+                summary.privilegesChanged(), (System.nanoTime() - startedAt) / 1_000_000);
     }
 
-    /**
-     * Kullanıcının ödünç alma ayrıcalığını düşürür.
-     * FULL -> LIMITED, LIMITED -> UNABLE şeklinde düşer.
-     * UNABLE durumunda değişiklik yapılmaz.
-     */
-    private void updateUserBorrowingPrivilege(AppUser user) {
-        BorrowingPrivilege currentPrivilege = user.getBorrowingPrivilege();
-
-        switch (currentPrivilege) {
-            case FULL:
-                user.setBorrowingPrivilege(BorrowingPrivilege.LIMITED);
-                log.info("Kullanıcı {} ayrıcalığı FULL -> LIMITED olarak düşürüldü", user.getUsername());
-                break;
-
-            case LIMITED:
-                user.setBorrowingPrivilege(BorrowingPrivilege.UNABLE);
-                log.info("Kullanıcı {} ayrıcalığı LIMITED -> UNABLE olarak düşürüldü", user.getUsername());
-                break;
-
-            case UNABLE:
-                // Zaten en düşük seviyede, değişiklik yapma
-                log.info("Kullanıcı {} ayrıcalığı zaten UNABLE durumunda", user.getUsername());
-                break;
+    private void reconcile() {
+        List<Long> driftedUserIds = appUserRepository.findIdsWithActiveLoanCountDrift();
+        if (driftedUserIds.isEmpty()) {
+            log.debug("Açık ödünç sayaçları tutarlı");
+            return;
         }
+
+        appUserRepository.lockByIdIn(driftedUserIds);
+        int fixed = appUserRepository.recomputeActiveLoanCounts(driftedUserIds);
+        log.warn("{} kullanıcının açık ödünç sayacı düzeltildi: {}", fixed, driftedUserIds);
     }
 }
\ No newline at end of file
@@ -7,6 +7,9 @@ import io.github.SenaUstun_Dev.library_management.dto.response.AuthorResponse;
 import io.github.SenaUstun_Dev.library_management.entity.Author;
 import io.github.SenaUstun_Dev.library_management.exception.ErrorMessages;
 import io.github.SenaUstun_Dev.library_management.repository.AuthorRepository;
+import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
+import io.github.SenaUstun_Dev.library_management.service.BookService;
 import io.github.SenaUstun_Dev.library_management.service.AuthorService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -21,6 +24,8 @@ import java.util.stream.Collectors;
 public class AuthorServiceImpl implements AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final BookService bookService;
 
     @Override
     public AuthorResponse addAuthor(CreateAuthorRequest request) {
@@ -49,6 +54,8 @@ public class AuthorServiceImpl implements AuthorService {
         author.setSecondName(request.secondName());
 
         authorRepository.save(author);
+        // Yazar bilgisi kitap yanıtlarına gömülü olduğu için ilgili kitaplar da güncellenir
+        bookService.touchBooks(bookRepository.findIdsByAuthorId(id));
         return convertToResponseDto(author);
     }
 
@@ -97,6 +104,23 @@ public class AuthorServiceImpl implements AuthorService {
     }
 
 
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion findAuthorVersion(Long id) {
+        return authorRepository.findVersionById(id).orElseThrow(() -> new BaseException(
+                HttpStatus.NOT_FOUND,
+                ErrorMessages.AUTHOR_NOT_FOUND,
+                "Author with ID " + id + " not found."
+        ));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion findAllAuthorsVersion() {
+        return authorRepository.findCollectionVersion();
+    }
+
+
     //>>>>>>>>>>>>>> HELPER METHODS
 
     private AuthorResponse convertToResponseDto(Author author) {
@@ -0,0 +1,235 @@
+package io.github.SenaUstun_Dev.library_management.service.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.github.SenaUstun_Dev.library_management.dto.request.CreateBookRequest;
+import io.github.SenaUstun_Dev.library_management.dto.response.BulkBookCreateResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.BulkBookResult;
+import io.github.SenaUstun_Dev.library_management.exception.BaseException;
+import io.github.SenaUstun_Dev.library_management.repository.BookBulkInsertRepository;
+import io.github.SenaUstun_Dev.library_management.repository.BookBulkInsertRepository.BookRow;
+import io.github.SenaUstun_Dev.library_management.search.BookSearchIndexer;
+import io.github.SenaUstun_Dev.library_management.service.BookBulkImportService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Kitapları parçalar halinde toplu ekler. Her parça kendi transaction'ında çalışır:
+ * referanslar ve isim tekrarları küme sorgularıyla kontrol edilir, geçerli kayıtlar JDBC batch ile yazılır.
+ * Bir parçanın yazımı başarısız olursa sadece o parçadaki kayıtlar hatalı sayılır, diğer parçalar etkilenmez.
+ */
+@Service
+@Slf4j
+public class BookBulkImportServiceImpl implements BookBulkImportService {
+
+    private static final int MAX_BULK_SIZE = 100_000;
+
+    private final BookBulkInsertRepository bookBulkInsertRepository;
+    private final BookSearchIndexer bookSearchIndexer;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public BookBulkImportServiceImpl(BookBulkInsertRepository bookBulkInsertRepository,
+                                     BookSearchIndexer bookSearchIndexer,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${library.books.bulk.chunk-size}") int chunkSize) {
+        this.bookBulkInsertRepository = bookBulkInsertRepository;
+        this.bookSearchIndexer = bookSearchIndexer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public BulkBookCreateResponse addBooks(List<CreateBookRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, "Bulk request must contain at least one book.");
+        }
+        if (requests.size() > MAX_BULK_SIZE) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, "Bulk request cannot contain more than " + MAX_BULK_SIZE + " books.");
+        }
+
+        long startedAt = System.nanoTime();
+        BulkBookResult[] results = new BulkBookResult[requests.size()];
+        // Önceki parçalarda oluşturulan kitapların isimleri; istek içindeki tekrarları parçalar arası yakalamak için
+        Set<String> namesInRequest = new HashSet<>();
+        long insertedRows = 0;
+
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, requests.size());
+            insertedRows += processChunk(requests, from, to, results, namesInRequest);
+        }
+
+        long elapsedNanos = System.nanoTime() - startedAt;
+        int created = (int) Arrays.stream(results).filter(BulkBookResult::created).count();
+        double rowsPerSecond = elapsedNanos == 0 ? 0 : insertedRows / (elapsedNanos / 1_000_000_000.0);
+
+        log.info("Toplu kitap ekleme: {} istek, {} oluşturuldu, {} satır, {} satır/sn",
+                requests.size(), created, insertedRows, Math.round(rowsPerSecond));
+
+        return BulkBookCreateResponse.builder()
+                .received(requests.size())
+                .created(created)
+                .failed(requests.size() - created)
+                .insertedRows(insertedRows)
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .rowsPerSecond(rowsPerSecond)
+                .results(List.of(results))
+                .build();
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private long processChunk(List<CreateBookRequest> requests, int from, int to,
+                              BulkBookResult[] results, Set<String> namesInRequest) {
+        // 1) Veritabanına gitmeden yapılabilen kontroller
+        List<Integer> candidates = new ArrayList<>();
+        Set<String> namesInChunk = new HashSet<>();
+        for (int i = from; i < to; i++) {
+            CreateBookRequest request = requests.get(i);
+            String error = null;
+            if (request == null || request.name() == null || request.name().isBlank()) {
+                error = "Book name cannot be empty.";
+            } else if (request.status() == null) {
+                error = "Book status cannot be empty.";
+            } else if (namesInRequest.contains(lowerName(request)) || !namesInChunk.add(lowerName(request))) {
+                error = "Book with name '" + request.name() + "' appears more than once in the request.";
+            }
+
+            if (error != null) {
+                results[i] = failure(i, request, error);
+            } else {
+                candidates.add(i);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            Long insertedRows = transactionTemplate.execute(status -> insertCandidates(requests, candidates, results));
+            // İsimler parça commit olduktan sonra ve sadece oluşturulan kitaplar için eklenir; reddedilen ya da geri alınan
+            // bir kitabın ismi sonraki parçalarda tekrar denenebilir
+            for (int i : candidates) {
+                if (results[i].created()) {
+                    namesInRequest.add(lowerName(requests.get(i)));
+                }
+            }
+            return insertedRows == null ? 0 : insertedRows;
+        } catch (DataAccessException e) {
+            log.error("Toplu kitap ekleme parçası başarısız oldu ({}-{})", from, to - 1, e);
+            for (int i : candidates) {
+                results[i] = failure(i, requests.get(i), "Chunk could not be written: " + e.getMostSpecificCause().getMessage());
+            }
+            return 0;
+        }
+    }
+
+    private long insertCandidates(List<CreateBookRequest> requests, List<Integer> candidates, BulkBookResult[] results) {
+        List<CreateBookRequest> chunk = candidates.stream().map(requests::get).toList();
+
+        // 2) Referans ve isim kontrolleri: her tür için tek sorgu
+        Set<Long> existingAuthors = bookBulkInsertRepository.findExistingAuthorIds(collectIds(chunk, CreateBookRequest::authorIds));
+        Set<Long> existingPublishers = bookBulkInsertRepository.findExistingPublisherIds(collectIds(chunk, CreateBookRequest::publisherIds));
+        Set<Long> existingGenres = bookBulkInsertRepository.findExistingGenreIds(collectIds(chunk, CreateBookRequest::genreIds));
+        Set<String> existingNames = bookBulkInsertRepository.findExistingLowerNames(
+                chunk.stream().map(this::lowerName).collect(Collectors.toSet()));
+
+        List<Integer> valid = new ArrayList<>();
+        for (int i : candidates) {
+            CreateBookRequest request = requests.get(i);
+            String error = null;
+            if (existingNames.contains(lowerName(request))) {
+                error = "Book with name '" + request.name() + "' already exists.";
+            } else {
+                error = missingReference("Yazar", request.authorIds(), existingAuthors);
+                if (error == null) {
+                    error = missingReference("Yayıncı", request.publisherIds(), existingPublishers);
+                }
+                if (error == null) {
+                    error = missingReference("Kitap türü", request.genreIds(), existingGenres);
+                }
+            }
+
+            if (error != null) {
+                results[i] = failure(i, request, error);
+            } else {
+                valid.add(i);
+            }
+        }
+        if (valid.isEmpty()) {
+            return 0L;
+        }
+
+        // 3) Id'ler sequence'tan tek sorguda ayrılır, kitaplar ve ilişki satırları batch olarak yazılır
+        List<Long> ids = bookBulkInsertRepository.allocateBookIds(valid.size());
+        List<BookRow> rows = new ArrayList<>(valid.size());
+        for (int k = 0; k < valid.size(); k++) {
+            CreateBookRequest request = requests.get(valid.get(k));
+            rows.add(new BookRow(ids.get(k), request.name(), request.status(),
+                    nonNull(request.authorIds()), nonNull(request.publisherIds()), nonNull(request.genreIds())));
+        }
+        long insertedRows = bookBulkInsertRepository.insert(rows);
+        bookSearchIndexer.reindex(ids);
+
+        for (int k = 0; k < valid.size(); k++) {
+            int i = valid.get(k);
+            results[i] = BulkBookResult.builder()
+                    .index(i)
+                    .name(requests.get(i).name())
+                    .id(ids.get(k))
+                    .created(true)
+                    .build();
+        }
+        return insertedRows;
+    }
+
+    private String lowerName(CreateBookRequest request) {
+        return request.name().toLowerCase(Locale.ROOT);
+    }
+
+    private Set<Long> collectIds(List<CreateBookRequest> chunk, Function<CreateBookRequest, Set<Long>> ids) {
+        return chunk.stream()
+                .map(ids)
+                .filter(Objects::nonNull)
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet());
+    }
+
+    private String missingReference(String label, Set<Long> requested, Set<Long> existing) {
+        if (requested == null) {
+            return null;
+        }
+        return requested.stream()
+                .filter(id -> !existing.contains(id))
+                .findFirst()
+                .map(id -> label + " ID: " + id + " bulunamadı.")
+                .orElse(null);
+    }
+
+    private Set<Long> nonNull(Set<Long> ids) {
+        return ids == null ? Set.of() : ids;
+    }
+
+    private BulkBookResult failure(int index, CreateBookRequest request, String error) {
+        return BulkBookResult.builder()
+                .index(index)
+                .name(request == null ? null : request.name())
+                .created(false)
+                .error(error)
+                .build();
+    }
+}
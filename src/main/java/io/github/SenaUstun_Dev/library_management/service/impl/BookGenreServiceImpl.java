@@ -1,5 +1,6 @@
 package io.github.SenaUstun_Dev.library_management.service.impl;
 
+import io.github.SenaUstun_Dev.library_management.cache.ReferenceDataCache;
 import io.github.SenaUstun_Dev.library_management.dto.request.CreateBookGenreRequest;
 import io.github.SenaUstun_Dev.library_management.dto.request.UpdateBookGenreRequest;
 import io.github.SenaUstun_Dev.library_management.dto.response.BookGenreResponse;
@@ -7,6 +8,9 @@ import io.github.SenaUstun_Dev.library_management.entity.BookGenre;
 import io.github.SenaUstun_Dev.library_management.exception.BaseException;
 import io.github.SenaUstun_Dev.library_management.exception.ErrorMessages;
 import io.github.SenaUstun_Dev.library_management.repository.BookGenreRepository;
+import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
+import io.github.SenaUstun_Dev.library_management.service.BookService;
 import io.github.SenaUstun_Dev.library_management.service.BookGenreService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +25,9 @@ import java.util.stream.Collectors;
 public class BookGenreServiceImpl implements BookGenreService {
 
     private final BookGenreRepository bookGenreRepository;
+    private final BookRepository bookRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final BookService bookService;
 
     @Override
     public BookGenreResponse addBookGenre(CreateBookGenreRequest request) {
@@ -44,6 +51,9 @@ public class BookGenreServiceImpl implements BookGenreService {
 
         genre.setName(request.name());
         bookGenreRepository.save(genre);
+        // Tür adı kitap yanıtlarına gömülü olduğu için ilgili kitaplar da güncellenir
+        bookService.touchBooks(bookRepository.findIdsByGenreId(id));
+        referenceDataCache.invalidateGenre(id);
 
         return convertToResponseDto(genre);
     }
@@ -53,6 +63,7 @@ public class BookGenreServiceImpl implements BookGenreService {
     public void deleteBookGenre(Long id) {
         if (bookGenreRepository.existsById(id)) {
             bookGenreRepository.deleteById(id);
+            referenceDataCache.invalidateGenre(id);
         } else {
             throw new BaseException(
                     HttpStatus.NOT_FOUND,
@@ -93,6 +104,23 @@ public class BookGenreServiceImpl implements BookGenreService {
     }
 
 
+    @Override
+    @Transactional
+    public ResourceVersion findBookGenreVersion(Long id) {
+        return bookGenreRepository.findVersionById(id).orElseThrow(() -> new BaseException(
+                HttpStatus.NOT_FOUND,
+                ErrorMessages.BOOKGENRE_NOT_FOUND,
+                "Book genre with ID " + id + " not found."
+        ));
+    }
+
+    @Override
+    @Transactional
+    public ResourceVersion findAllBookGenresVersion() {
+        return bookGenreRepository.findCollectionVersion();
+    }
+
+
     //>>>>>>>>>>>>>> HELPER METHODS
 
     private BookGenreResponse convertToResponseDto(BookGenre genre) {
@@ -0,0 +1,125 @@
+package io.github.SenaUstun_Dev.library_management.service.impl;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.github.SenaUstun_Dev.library_management.circulation.BookHoldQueue;
+import io.github.SenaUstun_Dev.library_management.dto.response.BookHoldResponse;
+import io.github.SenaUstun_Dev.library_management.entity.AppUser;
+import io.github.SenaUstun_Dev.library_management.entity.BookHold;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BorrowingPrivilege;
+import io.github.SenaUstun_Dev.library_management.exception.BaseException;
+import io.github.SenaUstun_Dev.library_management.exception.ErrorMessages;
+import io.github.SenaUstun_Dev.library_management.repository.BookHoldRepository;
+import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
+import io.github.SenaUstun_Dev.library_management.repository.BorrowedBookRepository;
+import io.github.SenaUstun_Dev.library_management.repository.CirculationJdbcRepository;
+import io.github.SenaUstun_Dev.library_management.repository.CirculationJdbcRepository.BookState;
+import io.github.SenaUstun_Dev.library_management.repository.projection.HoldQueueEntry;
+import io.github.SenaUstun_Dev.library_management.service.BookHoldService;
+import lombok.RequiredArgsConstructor;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class BookHoldServiceImpl implements BookHoldService {
+
+    private final BookHoldRepository bookHoldRepository;
+    private final BookRepository bookRepository;
+    private final BorrowedBookRepository borrowedBookRepository;
+    private final CirculationJdbcRepository circulationJdbcRepository;
+    private final BookHoldQueue bookHoldQueue;
+
+    @Override
+    public BookHoldResponse placeHold(AppUser user, Long bookId) {
+        if (user.getBorrowingPrivilege() == BorrowingPrivilege.UNABLE) {
+            throw new BaseException(
+                    HttpStatus.FORBIDDEN,
+                    ErrorMessages.BORROWING_NOT_ALLOWED,
+                    "Kitap ödünç almak hakkınız iptal edildiği için sıraya giremezsiniz."
+            );
+        }
+
+        // Ödünç/iade işlemleriyle aynı kilit sırası: önce kullanıcı, sonra kitap.
+        // Kitap kilitliyken iade sırayı okuyamaz; böylece ACTIVE olan bir kitaba sıra kaydı düşmez.
+        circulationJdbcRepository.lockUserActiveLoanCount(user.getId());
+        BookState book = circulationJdbcRepository.lockBooks(List.of(bookId)).get(bookId);
+        if (book == null) {
+            throw new BaseException(HttpStatus.NOT_FOUND, ErrorMessages.BOOK_NOT_FOUND, "Kitap bulunamadı. ID: " + bookId);
+        }
+        if (book.status() == BookStatus.ACTIVE) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, ErrorMessages.HOLD_NOT_ALLOWED,
+                    "Kitap şu anda müsait, sıraya girmeden ödünç alabilirsiniz.");
+        }
+        if (book.status() != BookStatus.BORROWED) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, ErrorMessages.HOLD_NOT_ALLOWED,
+                    "Sadece ödünçteki kitaplar için sıraya girilebilir. Durum: " + book.status());
+        }
+        if (borrowedBookRepository.findByUserIdAndBookIdAndActualReturnDateIsNull(user.getId(), bookId).isPresent()) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, ErrorMessages.HOLD_NOT_ALLOWED,
+                    "Bu kitap zaten sizde.");
+        }
+        if (bookHoldRepository.existsByBookIdAndUserId(bookId, user.getId())) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, ErrorMessages.HOLD_NOT_ALLOWED,
+                    "Bu kitap için zaten sıradasınız.");
+        }
+
+        BookHold hold = bookHoldRepository.save(BookHold.builder()
+                .book(bookRepository.getReferenceById(bookId))
+                .user(user)
+                .build());
+        bookHoldQueue.enqueue(new HoldQueueEntry(hold.getId(), bookId, user.getId()));
+
+        return convertToResponse(hold, book.name());
+    }
+
+    @Override
+    public void cancelHold(AppUser user, Long bookId) {
+        BookHold hold = findHold(user, bookId);
+        bookHoldRepository.deleteHold(hold.getId());
+        bookHoldQueue.dequeue(new HoldQueueEntry(hold.getId(), bookId, user.getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookHoldResponse getHold(AppUser user, Long bookId) {
+        BookHold hold = findHold(user, bookId);
+        return convertToResponse(hold, hold.getBook().getName());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookHoldResponse> getHolds(AppUser user) {
+        return bookHoldRepository.findByUserIdOrderByIdAsc(user.getId()).stream()
+                .map(hold -> convertToResponse(hold, hold.getBook().getName()))
+                .collect(Collectors.toList());
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private BookHold findHold(AppUser user, Long bookId) {
+        return bookHoldRepository.findByBookIdAndUserId(bookId, user.getId())
+                .orElseThrow(() -> new BaseException(
+                        HttpStatus.NOT_FOUND,
+                        ErrorMessages.HOLD_NOT_FOUND,
+                        "Bu kitap için sırada değilsiniz veya kitap size verilmiş. Kitap ID: " + bookId
+                ));
+    }
+
+    private BookHoldResponse convertToResponse(BookHold hold, String bookName) {
+        Long bookId = hold.getBook().getId();
+        return BookHoldResponse.builder()
+                .id(hold.getId())
+                .bookId(bookId)
+                .bookName(bookName)
+                .position(bookHoldRepository.findPosition(bookId, hold.getId()))
+                .queueLength(bookHoldRepository.countByBookId(bookId))
+                .createdAt(hold.getCreatedAt())
+                .build();
+    }
+}
@@ -1,21 +1,44 @@
 package io.github.SenaUstun_Dev.library_management.service.impl;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.SenaUstun_Dev.library_management.cache.BookResponseCache;
+import io.github.SenaUstun_Dev.library_management.cache.ReferenceDataCache;
+import io.github.SenaUstun_Dev.library_management.circulation.CirculationEvent;
+import io.github.SenaUstun_Dev.library_management.dto.request.BookFacetSearchRequest;
+import io.github.SenaUstun_Dev.library_management.dto.request.BookSortField;
 import io.github.SenaUstun_Dev.library_management.dto.request.CreateBookRequest;
 import io.github.SenaUstun_Dev.library_management.dto.request.UpdateBookRequest;
 import io.github.SenaUstun_Dev.library_management.dto.response.AuthorResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.BookFacetSearchResponse;
 import io.github.SenaUstun_Dev.library_management.dto.response.BookGenreResponse;
 import io.github.SenaUstun_Dev.library_management.dto.response.BookResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.CursorPageResponse;
 import io.github.SenaUstun_Dev.library_management.dto.response.PublisherResponse;
 import io.github.SenaUstun_Dev.library_management.entity.Author;
 import io.github.SenaUstun_Dev.library_management.entity.Book;
@@ -25,20 +48,43 @@ import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
 import io.github.SenaUstun_Dev.library_management.exception.BaseException;
 import io.github.SenaUstun_Dev.library_management.exception.ErrorMessages;
 import io.github.SenaUstun_Dev.library_management.repository.AuthorRepository;
+import io.github.SenaUstun_Dev.library_management.repository.BookFacetSearchRepository;
 import io.github.SenaUstun_Dev.library_management.repository.BookGenreRepository;
 import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
+import io.github.SenaUstun_Dev.library_management.repository.CirculationEventRepository;
+import io.github.SenaUstun_Dev.library_management.repository.CirculationJdbcRepository;
 import io.github.SenaUstun_Dev.library_management.repository.PublisherRepository;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
+import io.github.SenaUstun_Dev.library_management.search.BookSearchDocument;
+import io.github.SenaUstun_Dev.library_management.search.BookSearchIndex;
+import io.github.SenaUstun_Dev.library_management.search.BookSearchIndexer;
 import io.github.SenaUstun_Dev.library_management.service.BookService;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
 public class BookServiceImpl implements BookService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final String CURSOR_SEPARATOR = "|";
+    // default_batch_fetch_size ile aynı: bir parçadaki kitapların ilişkileri tek IN sorgusuyla yüklenir
+    private static final int STREAM_CHUNK_SIZE = 50;
+
     private final BookRepository bookRepository;
+    private final BookFacetSearchRepository bookFacetSearchRepository;
     private final AuthorRepository authorRepository;
     private final BookGenreRepository bookGenreRepository;
     private final PublisherRepository publisherRepository;
+    private final CirculationJdbcRepository circulationJdbcRepository;
+    private final CirculationEventRepository circulationEventRepository;
+    private final BookResponseCache bookResponseCache;
+    private final ReferenceDataCache referenceDataCache;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookSearchIndexer bookSearchIndexer;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
 
     @Override
     @Transactional
@@ -53,45 +99,10 @@ public class BookServiceImpl implements BookService {
             throw new BaseException(HttpStatus.CONFLICT, "Book with name '" + request.name() + "' already exists.");
         }
 
-        // İlişkili entity'leri ID'lerine göre bulma
-        Set<Author> authors = new HashSet<>();
-        if (request.authorIds() != null && !request.authorIds().isEmpty()) {
-            for (Long authorId : request.authorIds()) {
-                Author author = authorRepository.findById(authorId)
-                        .orElseThrow(() -> new BaseException(
-                                HttpStatus.NOT_FOUND,
-                                ErrorMessages.AUTHOR_NOT_FOUND,
-                                "Yazar ID: " + authorId + " bulunamadı."
-                        ));
-                authors.add(author);
-            }
-        }
-
-        Set<Publisher> publishers = new HashSet<>();
-        if (request.publisherIds() != null && !request.publisherIds().isEmpty()) {
-            for (Long publisherId : request.publisherIds()) {
-                Publisher publisher = publisherRepository.findById(publisherId)
-                        .orElseThrow(() -> new BaseException(
-                                HttpStatus.NOT_FOUND,
-                                ErrorMessages.PUBLISHER_NOT_FOUND,
-                                "Yayıncı ID: " + publisherId + " bulunamadı."
-                        ));
-                publishers.add(publisher);
-            }
-        }
-
-        Set<BookGenre> genres = new HashSet<>();
-        if (request.genreIds() != null && !request.genreIds().isEmpty()) {
-            for (Long genreId : request.genreIds()) {
-                BookGenre genre = bookGenreRepository.findById(genreId)
-                        .orElseThrow(() -> new BaseException(
-                                HttpStatus.NOT_FOUND,
-                                ErrorMessages.BOOKGENRE_NOT_FOUND,
-                                "Kitap türü ID: " + genreId + " bulunamadı."
-                        ));
-                genres.add(genre);
-            }
-        }
+        // İlişkili entity'leri ID'lerine göre bulma (her tür için tek sorgu)
+        Set<Author> authors = resolveAuthors(request.authorIds());
+        Set<Publisher> publishers = resolvePublishers(request.publisherIds());
+        Set<BookGenre> genres = resolveGenres(request.genreIds());
 
         // Book nesnesi oluştur
         Book book = Book.builder()
@@ -103,6 +114,8 @@ public class BookServiceImpl implements BookService {
                 .build();
 
         Book savedBook = bookRepository.save(book);
+        bookResponseCache.invalidate(savedBook.getId());
+        bookSearchIndex.indexAfterCommit(List.of(BookSearchDocument.from(savedBook)));
         return convertToResponseDto(savedBook);
     }
 
@@ -121,54 +134,27 @@ public class BookServiceImpl implements BookService {
             bookToUpdate.setName(request.name());
         }
         if (request.status() != null) {
+            if (bookToUpdate.getStatus() == BookStatus.LOST && request.status() != BookStatus.LOST) {
+                closeLostLoan(id);
+            }
             bookToUpdate.setStatus(request.status());
         }
 
         // İlişkili entity'leri güncelle
         if (request.authorIds() != null) {
-            Set<Author> authors = new HashSet<>();
-            for (Long authorId : request.authorIds()) {
-                Author author = authorRepository.findById(authorId)
-                        .orElseThrow(() -> new BaseException(
-                                HttpStatus.NOT_FOUND,
-                                ErrorMessages.AUTHOR_NOT_FOUND,
-                                "Yazar ID: " + authorId + " bulunamadı."
-                        ));
-                authors.add(author);
-            }
-            bookToUpdate.setAuthors(authors);
+            bookToUpdate.setAuthors(resolveAuthors(request.authorIds()));
         }
-
         if (request.publisherIds() != null) {
-            Set<Publisher> publishers = new HashSet<>();
-            for (Long publisherId : request.publisherIds()) {
-                Publisher publisher = publisherRepository.findById(publisherId)
-                        .orElseThrow(() -> new BaseException(
-                                HttpStatus.NOT_FOUND,
-                                ErrorMessages.PUBLISHER_NOT_FOUND,
-                                "Yayıncı ID: " + publisherId + " bulunamadı."
-                        ));
-                publishers.add(publisher);
-            }
-            bookToUpdate.setPublishers(publishers);
+            bookToUpdate.setPublishers(resolvePublishers(request.publisherIds()));
         }
-
         if (request.genreIds() != null) {
-            Set<BookGenre> genres = new HashSet<>();
-            for (Long genreId : request.genreIds()) {
-                BookGenre genre = bookGenreRepository.findById(genreId)
-                        .orElseThrow(() -> new BaseException(
-                                HttpStatus.NOT_FOUND,
-                                ErrorMessages.BOOKGENRE_NOT_FOUND,
-                                "Kitap türü ID: " + genreId + " bulunamadı."
-                        ));
-                genres.add(genre);
-            }
-            bookToUpdate.setGenres(genres);
+            bookToUpdate.setGenres(resolveGenres(request.genreIds()));
         }
 
-        Book updatedBook = bookRepository.save(bookToUpdate);
-        return convertToResponseDto(updatedBook);
+        // Kitap managed durumda; değişiklikler commit sırasında flush edilir
+        bookResponseCache.invalidate(id);
+        bookSearchIndex.indexAfterCommit(List.of(BookSearchDocument.from(bookToUpdate)));
+        return convertToResponseDto(bookToUpdate);
     }
 
     @Override
@@ -182,18 +168,52 @@ public class BookServiceImpl implements BookService {
             );
         }
         bookRepository.deleteById(id);
+        bookResponseCache.invalidate(id);
+        bookSearchIndex.removeAfterCommit(id);
+    }
+
+    @Override
+    @Transactional
+    public void touchBooks(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        bookResponseCache.invalidate(bookIds);
+        bookRepository.incrementVersions(bookIds, Instant.now());
+        bookSearchIndexer.reindex(bookIds);
     }
 
     @Transactional(readOnly = true)
     @Override
     public BookResponse findBookById(Long id) {
-        Book book = bookRepository.findById(id)
+        return bookResponseCache.get(id, this::loadVersionedBook).book();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public ResourceVersion findBookVersion(Long id) {
+        return bookRepository.findVersionById(id)
                 .orElseThrow(() -> new BaseException(
                         HttpStatus.NOT_FOUND,
                         ErrorMessages.BOOK_NOT_FOUND,
                         "Book with ID " + id + " not found."
                 ));
-        return convertToResponseDto(book);
+    }
+
+    /**
+     * Önbellekteki yanıtın sürümü beklenen (veritabanından okunan) sürümle eşleşiyorsa önbellekten döner. Eşleşmiyorsa
+     * (ör. başka bir replikadaki güncelleme bu düğümde henüz yakalanmadı) kayıt önbellekten düşürülür ve veritabanından
+     * okunur; dönen sürüm her zaman gövdeyi tanımlar.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public VersionedBook findBookWithVersion(Long id, ResourceVersion expected) {
+        VersionedBook cached = bookResponseCache.get(id, this::loadVersionedBook);
+        if (cached.version().equals(expected)) {
+            return cached;
+        }
+        bookResponseCache.invalidate(id);
+        return loadVersionedBook(id);
     }
 
     @Transactional(readOnly = true)
@@ -202,22 +222,56 @@ public class BookServiceImpl implements BookService {
         if (name == null || name.trim().isEmpty()) {
             throw new BaseException(HttpStatus.BAD_REQUEST, "Book name cannot be empty for search.");
         }
-        Book book = bookRepository.findByNameIgnoreCase(name)
+        Long bookId = bookRepository.findIdByNameIgnoreCase(name)
                 .orElseThrow(() -> new BaseException(
                         HttpStatus.NOT_FOUND,
                         ErrorMessages.BOOK_NOT_FOUND,
                         "Book with name '" + name + "' not found."
                 ));
-        return convertToResponseDto(book);
+        return findBookById(bookId);
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<BookResponse> findAll() {
-        List<Book> books = bookRepository.findAll();
-        return books.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+    public CursorPageResponse<BookResponse> findAll(String cursor, int size, BookSortField sortField, Sort.Direction direction) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, "Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+
+        // Bir fazla kayıt çekilir, böylece ayrıca count sorgusu atmadan sonraki sayfanın varlığı anlaşılır
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Long> ids;
+
+        if (cursor == null || cursor.isBlank()) {
+            Sort sort = (sortField == BookSortField.NAME)
+                    ? Sort.by(direction, "name").and(Sort.by(direction, "id"))
+                    : Sort.by(direction, "id");
+            ids = bookRepository.findCatalogIds(PageRequest.of(0, size + 1, sort));
+        } else {
+            BookCursor position = decodeCursor(cursor, sortField, direction);
+            if (sortField == BookSortField.NAME) {
+                ids = direction.isAscending()
+                        ? bookRepository.findIdsAfterName(position.name(), position.id(), limit)
+                        : bookRepository.findIdsBeforeName(position.name(), position.id(), limit);
+            } else {
+                ids = direction.isAscending()
+                        ? bookRepository.findIdsAfterId(position.id(), limit)
+                        : bookRepository.findIdsBeforeId(position.id(), limit);
+            }
+        }
+
+        boolean hasNext = ids.size() > size;
+        List<BookResponse> pageContent = findResponsesInOrder(hasNext ? ids.subList(0, size) : ids);
+        String nextCursor = (hasNext && !pageContent.isEmpty())
+                ? encodeCursor(pageContent.get(pageContent.size() - 1), sortField, direction)
+                : null;
+
+        return CursorPageResponse.<BookResponse>builder()
+                .content(pageContent)
+                .size(pageContent.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -228,20 +282,14 @@ public class BookServiceImpl implements BookService {
         }
 
         // Kriterlere uyan yazarları bul
-        Set<Author> matchingAuthors = authorRepository.findByPenNameContainingIgnoreCaseOrFirstNameContainingIgnoreCaseOrSecondNameContainingIgnoreCase(
-                authorCriteria, authorCriteria, authorCriteria
-        );
+        Set<Author> matchingAuthors = authorRepository.findByAnyNameContaining(authorCriteria);
 
         if (matchingAuthors.isEmpty()) {
             return Collections.emptyList();
         }
 
         // Bu yazarlara ait kitapları bul
-        List<Book> booksByAuthors = bookRepository.findByAuthorsIn(matchingAuthors);
-
-        return booksByAuthors.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+        return findResponsesInOrder(bookRepository.findIdsByAuthorsIn(matchingAuthors));
     }
 
     @Transactional(readOnly = true)
@@ -260,11 +308,7 @@ public class BookServiceImpl implements BookService {
                 ));
 
         // Bu türe ait kitapları bul
-        List<Book> booksByGenre = bookRepository.findByGenresContains(genre);
-
-        return booksByGenre.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+        return findResponsesInOrder(bookRepository.findIdsByGenre(genre));
     }
 
     @Transactional(readOnly = true)
@@ -283,13 +327,81 @@ public class BookServiceImpl implements BookService {
                 ));
 
         // Güncellenmiş repository metodu ile yayıncıya göre kitapları bul
-        List<Book> booksByPublisher = bookRepository.findByPublishersContains(publisher);
-
-        return booksByPublisher.stream()
-                .map(this::convertToResponseDto)
-                .collect(Collectors.toList());
+        return findResponsesInOrder(bookRepository.findIdsByPublisher(publisher));
     }
     
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookResponse> searchBooks(String query, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, "Search limit must be between 1 and " + MAX_SEARCH_RESULTS + ".");
+        }
+        if (query == null || query.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Eşleşme ve sıralama bellek içi indekste yapılır, veritabanına sadece önbellekte olmayan kitaplar için gidilir
+        List<Long> ids = bookSearchIndex.search(query, limit);
+        List<BookResponse> responses = findResponsesInOrder(ids);
+        if (responses.size() < ids.size()) {
+            // Başka bir replikada silinen kitaplar bu düğümün indeksinden çıkarılır
+            Set<Long> found = responses.stream().map(BookResponse::id).collect(Collectors.toSet());
+            ids.stream().filter(id -> !found.contains(id)).forEach(bookSearchIndex::remove);
+        }
+        return responses;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public BookFacetSearchResponse searchBooksWithFacets(BookFacetSearchRequest request) {
+        if (request.size() < 1 || request.size() > MAX_PAGE_SIZE) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, "Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+
+        // Eşleşme, toplam ve facet sayıları tek sorguda; kitap yanıtları önbellekten
+        BookFacetSearchRepository.Result result = bookFacetSearchRepository.search(request);
+
+        List<Long> ids = result.bookIds();
+        boolean hasNext = ids.size() > request.size();
+        List<Long> pageIds = hasNext ? ids.subList(0, request.size()) : ids;
+
+        return BookFacetSearchResponse.builder()
+                .content(findResponsesInOrder(pageIds))
+                .totalCount(result.totalCount())
+                .hasNext(hasNext)
+                .nextAfterId(hasNext ? pageIds.get(pageIds.size() - 1) : null)
+                .genres(result.genres())
+                .publishers(result.publishers())
+                .statuses(result.statuses())
+                .build();
+    }
+
+    /**
+     * Tüm kataloğu satır başına bir JSON nesnesi (NDJSON) olarak yazar.
+     * Kitaplar veritabanı cursor'ı üzerinden okunur; her parça yazıldıktan sonra persistence context temizlenir,
+     * böylece bellek kullanımı katalog boyutundan bağımsız kalır. Yanıtlar önbelleğe alınmaz.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void streamAllBooks(OutputStream outputStream) throws IOException {
+        OutputStream out = new BufferedOutputStream(outputStream);
+        List<Book> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+
+        try (Stream<Book> books = bookRepository.streamAllOrderById()) {
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    writeChunk(chunk, out);
+                    chunk.clear();
+                    // Bir sonraki satır clear'dan sonra okunmalı, aksi halde detached kalır
+                    entityManager.clear();
+                }
+            }
+            writeChunk(chunk, out);
+        }
+    }
+
     @Transactional(readOnly = true)
     @Override
     public List<BookResponse> findLostBooks() {
@@ -320,6 +432,19 @@ public class BookServiceImpl implements BookService {
 
     //>>>>>>>>>>>>>> HELPER METHODS
 
+    // Bulunan kayıp kitabın açık ödünç kaydını kapatır; aksi halde sonraki ödünç uq_borrowed_books_open_loan_book
+    // ile çakışır. Kayıp kayıtlar active_loan_count'a dahil olduğu için sayaç da düşer. Kilit sırası: kullanıcı, sonra
+    // kitap (kitap satırı commit sırasında flush edilir)
+    private void closeLostLoan(Long bookId) {
+        circulationJdbcRepository.findLostLoanUserId(bookId).ifPresent(userId -> {
+            circulationJdbcRepository.lockUsers(List.of(userId));
+            circulationJdbcRepository.closeLostLoan(userId, bookId, LocalDate.now()).ifPresent(loanId -> {
+                circulationJdbcRepository.adjustActiveLoanCount(userId, -1);
+                circulationEventRepository.append(CirculationEvent.returned(bookId, userId, loanId));
+            });
+        });
+    }
+
     private BookResponse convertToResponseDto(Book book) {
         if (book == null) {
             throw new BaseException(HttpStatus.INTERNAL_SERVER_ERROR, "Book entity is null during conversion.");
@@ -357,6 +482,116 @@ public class BookServiceImpl implements BookService {
                 .build();
     }
 
+    private Set<Author> resolveAuthors(Set<Long> authorIds) {
+        if (authorIds == null || authorIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        List<Author> authors = authorRepository.findAllById(authorIds);
+        requireAllFound(authorIds, authors.stream().map(Author::getId).collect(Collectors.toSet()),
+                ErrorMessages.AUTHOR_NOT_FOUND, "Yazar");
+        return new HashSet<>(authors);
+    }
+
+    // Yayıncı ve türler nadiren değiştiği için önbellekten çözülür, sadece önbellekte olmayanlar sorgulanır
+    private Set<Publisher> resolvePublishers(Set<Long> publisherIds) {
+        if (publisherIds == null || publisherIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        Map<Long, Publisher> publishers = referenceDataCache.getPublishers(publisherIds, publisherRepository::findAllById);
+        requireAllFound(publisherIds, publishers.keySet(), ErrorMessages.PUBLISHER_NOT_FOUND, "Yayıncı");
+        return new HashSet<>(publishers.values());
+    }
+
+    private Set<BookGenre> resolveGenres(Set<Long> genreIds) {
+        if (genreIds == null || genreIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        Map<Long, BookGenre> genres = referenceDataCache.getGenres(genreIds, bookGenreRepository::findAllById);
+        requireAllFound(genreIds, genres.keySet(), ErrorMessages.BOOKGENRE_NOT_FOUND, "Kitap türü");
+        return new HashSet<>(genres.values());
+    }
+
+    // Bulunamayan id'lerin hepsi tek hata mesajında raporlanır
+    private void requireAllFound(Set<Long> requestedIds, Set<Long> foundIds, ErrorMessages errorMessage, String label) {
+        List<Long> missingIds = requestedIds.stream()
+                .filter(requestedId -> !foundIds.contains(requestedId))
+                .sorted()
+                .toList();
+        if (!missingIds.isEmpty()) {
+            throw new BaseException(
+                    HttpStatus.NOT_FOUND,
+                    errorMessage,
+                    label + " ID: " + missingIds.stream().map(String::valueOf).collect(Collectors.joining(", ")) + " bulunamadı."
+            );
+        }
+    }
+
+    // İmleç; sıralama alanı, yön ve son kaydın anahtarlarını taşır. İstemci için opaktır.
+    private record BookCursor(Long id, String name) {
+    }
+
+    private String encodeCursor(BookResponse lastBook, BookSortField sortField, Sort.Direction direction) {
+        String raw = sortField.name() + CURSOR_SEPARATOR + direction.name() + CURSOR_SEPARATOR + lastBook.id();
+        if (sortField == BookSortField.NAME) {
+            raw = raw + CURSOR_SEPARATOR + lastBook.name();
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private BookCursor decodeCursor(String cursor, BookSortField sortField, Sort.Direction direction) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // İsim '|' içerebileceği için en fazla 4 parçaya bölünür
+            String[] parts = raw.split("\\|", 4);
+            boolean sameOrdering = parts.length >= 3
+                    && parts[0].equals(sortField.name())
+                    && parts[1].equals(direction.name());
+            if (!sameOrdering || (sortField == BookSortField.NAME && parts.length != 4)) {
+                throw new BaseException(
+                        HttpStatus.BAD_REQUEST,
+                        ErrorMessages.INVALID_CURSOR,
+                        "Cursor does not match the requested sort '" + sortField + " " + direction + "'."
+                );
+            }
+            Long id = Long.valueOf(parts[2]);
+            String name = (sortField == BookSortField.NAME) ? parts[3] : null;
+            return new BookCursor(id, name);
+        } catch (IllegalArgumentException e) {
+            // Base64 ya da sayı çözümleme hatası
+            throw new BaseException(HttpStatus.BAD_REQUEST, ErrorMessages.INVALID_CURSOR, "Cursor could not be decoded.");
+        }
+    }
+
+    private void writeChunk(List<Book> chunk, OutputStream out) throws IOException {
+        for (Book book : chunk) {
+            out.write(objectMapper.writeValueAsBytes(convertToResponseDto(book)));
+            out.write('\n');
+        }
+        // İstemci ilk satırları tüm katalog okunmadan alabilsin
+        out.flush();
+    }
+
+    // Id listesini önbellekten çözer; önbellekte olmayanlar ilişkileriyle tek sorguda yüklenir. Sıra korunur.
+    private List<BookResponse> findResponsesInOrder(List<Long> ids) {
+        return bookResponseCache.getAll(ids, missingIds -> bookRepository.findByIdIn(List.copyOf(missingIds)).stream()
+                .collect(Collectors.toMap(Book::getId, this::toVersionedBook)));
+    }
+
+    private VersionedBook loadVersionedBook(Long id) {
+        return bookRepository.findWithCatalogById(id)
+                .map(this::toVersionedBook)
+                .orElseThrow(() -> new BaseException(
+                        HttpStatus.NOT_FOUND,
+                        ErrorMessages.BOOK_NOT_FOUND,
+                        "Book with ID " + id + " not found."
+                ));
+    }
+
+    // Yanıt ve sürüm aynı satırdan; önbellekte birlikte tutulur
+    private VersionedBook toVersionedBook(Book book) {
+        return new VersionedBook(convertToResponseDto(book), new ResourceVersion(1L, book.getVersion(), book.getLastModifiedAt()));
+    }
+
     private AuthorResponse convertToAuthorResponse(Author author) {
         return AuthorResponse.builder()
                 .id(author.getId())
@@ -1,143 +1,260 @@
 package io.github.SenaUstun_Dev.library_management.service.impl;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import io.github.SenaUstun_Dev.library_management.cache.BookResponseCache;
+import io.github.SenaUstun_Dev.library_management.circulation.BookHoldQueue;
+import io.github.SenaUstun_Dev.library_management.circulation.CirculationEvent;
+import io.github.SenaUstun_Dev.library_management.circulation.CirculationProjection;
+import io.github.SenaUstun_Dev.library_management.dto.request.BatchCirculationRequest;
 import io.github.SenaUstun_Dev.library_management.dto.request.BorrowBookRequest;
+import io.github.SenaUstun_Dev.library_management.dto.request.LoanHistoryRequest;
+import io.github.SenaUstun_Dev.library_management.dto.response.ActiveLoanSummaryResponse;
 import io.github.SenaUstun_Dev.library_management.dto.response.AppUserResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.BatchCirculationResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.BookAvailabilityResponse;
 import io.github.SenaUstun_Dev.library_management.dto.response.BookResponse;
 import io.github.SenaUstun_Dev.library_management.dto.response.BorrowedBookResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.CirculationItemResult;
+import io.github.SenaUstun_Dev.library_management.dto.response.CursorPageResponse;
 import io.github.SenaUstun_Dev.library_management.entity.AppUser;
-import io.github.SenaUstun_Dev.library_management.entity.Book;
 import io.github.SenaUstun_Dev.library_management.entity.BorrowedBook;
 import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
 import io.github.SenaUstun_Dev.library_management.entity.enums.BorrowingPrivilege;
 import io.github.SenaUstun_Dev.library_management.exception.BaseException;
 import io.github.SenaUstun_Dev.library_management.exception.ErrorMessages;
+import io.github.SenaUstun_Dev.library_management.repository.AppUserRepository;
+import io.github.SenaUstun_Dev.library_management.repository.BookHoldRepository;
 import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
 import io.github.SenaUstun_Dev.library_management.repository.BorrowedBookRepository;
+import io.github.SenaUstun_Dev.library_management.repository.CirculationEventRepository;
+import io.github.SenaUstun_Dev.library_management.repository.CirculationJdbcRepository;
+import io.github.SenaUstun_Dev.library_management.repository.CirculationJdbcRepository.BookState;
+import io.github.SenaUstun_Dev.library_management.repository.CirculationJdbcRepository.LoanRow;
+import io.github.SenaUstun_Dev.library_management.repository.projection.HoldQueueEntry;
+import io.github.SenaUstun_Dev.library_management.repository.projection.LoanView;
+import io.github.SenaUstun_Dev.library_management.scheduling.DueDateQueue;
+import io.github.SenaUstun_Dev.library_management.service.BookService;
 import io.github.SenaUstun_Dev.library_management.service.BorrowedBookService;
 import io.github.SenaUstun_Dev.library_management.service.UserService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Slf4j
 public class BorrowedBookServiceImpl implements BorrowedBookService {
 
+    private static final int MAX_ACTIVE_LOANS = 3;
+    private static final int MAX_BORROW_ATTEMPTS = 3;
+    private static final int MAX_CART_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final long BORROW_RETRY_BASE_DELAY_MS = 20;
+
     private final BorrowedBookRepository borrowedBookRepository;
     private final BookRepository bookRepository;
+    private final AppUserRepository appUserRepository;
+    private final CirculationJdbcRepository circulationJdbcRepository;
+    private final CirculationEventRepository circulationEventRepository;
+    private final BookHoldRepository bookHoldRepository;
+    private final BookHoldQueue bookHoldQueue;
+    private final CirculationProjection circulationProjection;
+    private final BookService bookService;
     private final UserService userService;
+    private final BookResponseCache bookResponseCache;
+    private final DueDateQueue dueDateQueue;
+    private final TransactionTemplate transactionTemplate;
 
+    /**
+     * Kitabı ödünç verir. ACTIVE -> BORROWED geçişi koşullu tek bir UPDATE ile yapılır; aynı kitap için yarışan
+     * isteklerden sadece biri başarılı olur, diğerleri BOOK_NOT_AVAILABLE alır.
+     * Kilit çakışması veya deadlock gibi geçici hatalarda işlem yeni bir transaction'da sınırlı sayıda tekrar denenir.
+     * Çağıranın transaction'ı varsa (ör. idempotent istekte yanıt aynı transaction'da kaydedilir) ona katılır;
+     * bu durumda tekrar denemeyi çağıran yapar.
+     */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
     public BorrowedBookResponse borrowBook(AppUser user, BorrowBookRequest request) {
-        // Kullanıcının ödünç alma iznini kontrol etme
-        if (user.getBorrowingPrivilege() == BorrowingPrivilege.UNABLE) {
-            throw new BaseException(
-                    HttpStatus.FORBIDDEN, 
-                    ErrorMessages.BORROWING_NOT_ALLOWED,
-                    "Birden fazla kez ödünç alınan kitapları geri getirmediğiz tespit edilmiştir. Kitap ödünç almak hakkınız iptal edilmiştir. Bir yanlışlık olduğunu düşünüyorsanız ilgili birimle iletişime geçiniz."
-            );
-        }
-        
-        // Kullanıcının mevcut ödünç aldığı kitap sayısını kontrol etme
-        int activeBorrowedBooksCount = borrowedBookRepository.countActiveBorrowedBooksByUser(user);
-        if (activeBorrowedBooksCount >= 3) {
-            throw new BaseException(
-                    HttpStatus.BAD_REQUEST, 
-                    ErrorMessages.MAX_BOOKS_EXCEEDED,
-                    "Aynı anda en fazla 3 tane ödünç kitaba sahip olunabilir."
-            );
-        }
-        
-        // İstenen kitabı bulma
-        Book book = bookRepository.findById(request.bookId())
-                .orElseThrow(() -> new BaseException(
-                        HttpStatus.NOT_FOUND, 
-                        ErrorMessages.BOOK_NOT_FOUND,
-                        "Kitap bulunamadı. ID: " + request.bookId()
-                ));
-        
-        // Kitabın ödünç alınabilir olup olmadığını kontrol etme
-        if (book.getStatus() != BookStatus.ACTIVE) {
-            throw new BaseException(
-                    HttpStatus.BAD_REQUEST, 
-                    ErrorMessages.BOOK_NOT_AVAILABLE,
-                    "Kitap şu anda ödünç alınamaz. Durum: " + book.getStatus()
-            );
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return borrowBookOnce(user, request);
         }
-        
-        // Kullanıcının ödünç alma iznine göre iade tarihini hesaplama
-        LocalDate borrowDate = LocalDate.now();
-        LocalDate dueDate;
-        
-        if (user.getBorrowingPrivilege() == BorrowingPrivilege.FULL) {
-            dueDate = borrowDate.plusDays(30);
-        } else if (user.getBorrowingPrivilege() == BorrowingPrivilege.LIMITED) {
-            dueDate = borrowDate.plusDays(15);
-        } else {
-            throw new BaseException(
-                    HttpStatus.INTERNAL_SERVER_ERROR, 
-                    ErrorMessages.UNEXPECTED_ERROR,
-                    "Beklenmeyen bir hata oluştu. User BorrowingPrivilege değeri null veya sorunlu olabilir?"
-            );
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> borrowBookOnce(user, request));
+            } catch (TransientDataAccessException e) {
+                if (attempt >= MAX_BORROW_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Ödünç alma geçici bir hata nedeniyle tekrar deneniyor (deneme {}/{}), kitap ID: {}",
+                        attempt, MAX_BORROW_ATTEMPTS, request.bookId(), e);
+                backOff(attempt);
+            }
         }
-        
-        // Yeni bir ödünç kitap kaydı oluşturma
-        BorrowedBook borrowedBook = new BorrowedBook();
-        borrowedBook.setUser(user);
-        borrowedBook.setBook(book);
-        borrowedBook.setBorrowDate(borrowDate);
-        borrowedBook.setDueDate(dueDate);
-        borrowedBook.setActualReturnDate(null); // İade edilmediği için null
-        borrowedBook.setLost(false);
-        
-        // Kitabın durumunu güncelleme
-        book.setStatus(BookStatus.BORROWED);
-        
-        // Veritabanına kaydetme
-        BorrowedBook savedBorrowedBook = borrowedBookRepository.save(borrowedBook);
-        bookRepository.save(book);
-        
-        // Response oluşturma
-        return convertToResponse(savedBorrowedBook);
     }
 
     @Override
     @Transactional
     public BorrowedBookResponse returnBook(AppUser user, Long bookId) {
-        // Kullanıcının aktif olarak ödünç aldığı kitapları getir
-        List<BorrowedBook> activeBorrowedBooks = borrowedBookRepository.findByUserAndActualReturnDateIsNull(user);
-        
-        // Kullanıcının iade etmek istediği kitabı bul
-        BorrowedBook borrowedBook = activeBorrowedBooks.stream()
-                .filter(b -> b.getBook().getId().equals(bookId))
-                .findFirst()
+        // Sıradaki bekleyen kitap kilidinden önce seçilir; iade edenle birlikte kullanıcı satırları id sırasıyla kilitlenir
+        // (sıraya girme ve toplu iade ile aynı kilit sırası). Kayıt bulunamazsa hata tüm güncellemeleri geri alır.
+        Optional<HoldQueueEntry> nextHold = claimNextHold(bookId);
+        lockUsers(user, nextHold.stream().toList());
+        appUserRepository.decrementActiveLoanCount(user.getId());
+
+        // Kullanıcının iade etmek istediği kitabın açık ödünç kaydını bul
+        BorrowedBook borrowedBook = borrowedBookRepository.findByUserIdAndBookIdAndActualReturnDateIsNull(user.getId(), bookId)
                 .orElseThrow(() -> new BaseException(
                         HttpStatus.NOT_FOUND,
                         ErrorMessages.BOOK_NOT_FOUND,
                         "Bu kitap sizin tarafınızdan ödünç alınmamış veya zaten iade edilmiş."
                 ));
         
-        // İade tarihini şimdiki tarih olarak ayarla
+        // İade tarihini şimdiki tarih olarak ayarla; sıradaki kişiye yeni kayıt açılmadan önce eski kayıt kapanmalı
         borrowedBook.setActualReturnDate(LocalDate.now());
+        BorrowedBook updatedBorrowedBook = borrowedBookRepository.saveAndFlush(borrowedBook);
+        circulationEventRepository.append(CirculationEvent.returned(bookId, user.getId(), borrowedBook.getId()));
+        dueDateQueue.cancel(borrowedBook.getId());
         
-        // Kitabın durumunu ACTIVE olarak güncelle
-        Book book = borrowedBook.getBook();
-        book.setStatus(BookStatus.ACTIVE);
-        bookRepository.save(book);
-        
-        // BorrowedBook kaydını güncelle
-        BorrowedBook updatedBorrowedBook = borrowedBookRepository.save(borrowedBook);
+        // Kitap sırada bekleyen varsa doğrudan ona verilir, yoksa ACTIVE olur
+        // Kitap ödünç kaydının yüklediği (kilitten önceki) hâliyle kaydedilmez; durum SQL ile yazılır ki arada artan
+        // sürüm optimistic lock hatasına dönüşmesin
+        circulationJdbcRepository.lockBooks(List.of(bookId));
+        BookStatus status = handOffToNextHolder(bookId, nextHold) ? BookStatus.BORROWED : BookStatus.ACTIVE;
+        circulationJdbcRepository.updateStatuses(List.of(bookId), status);
+        bookResponseCache.invalidate(bookId);
         
-        return convertToResponse(updatedBorrowedBook);
+        return convertToResponse(updatedBorrowedBook, status);
     }
     
+    /**
+     * Sepetteki kitapları tek transaction'da ödünç verir. İzin ve iade tarihi bir kez hesaplanır,
+     * kullanıcı ve kitap satırları kilitlenir, durum geçişleri ve ödünç kayıtları küme tabanlı ifadelerle yazılır.
+     * Kitap bazındaki sorunlar (bulunamadı, müsait değil, sınır aşıldı) tüm sepeti iptal etmez; her kalem için sonuç döner.
+     */
+    @Override
+    public BatchCirculationResponse checkoutBooks(AppUser user, BatchCirculationRequest request) {
+        List<Long> cart = validateCart(request);
+        requireBorrowingAllowed(user);
+        LocalDate borrowDate = LocalDate.now();
+        LocalDate dueDate = calculateDueDate(user, borrowDate);
+
+        int activeLoans = lockUser(user);
+        Map<Long, BookState> books = circulationJdbcRepository.lockBooks(new LinkedHashSet<>(cart));
+
+        // Kalemler sepet sırasıyla değerlendirilir; boş kalan slotlar ilk müsait kitaplara verilir
+        CirculationItemResult[] results = new CirculationItemResult[cart.size()];
+        Map<Long, Integer> positions = new LinkedHashMap<>();
+        int freeSlots = MAX_ACTIVE_LOANS - activeLoans;
+        for (int i = 0; i < cart.size(); i++) {
+            Long bookId = cart.get(i);
+            BookState book = books.get(bookId);
+            if (positions.containsKey(bookId)) {
+                results[i] = failure(bookId, ErrorMessages.BOOK_NOT_AVAILABLE, "Kitap sepette birden fazla kez var.");
+            } else if (book == null) {
+                results[i] = failure(bookId, ErrorMessages.BOOK_NOT_FOUND, "Kitap bulunamadı. ID: " + bookId);
+            } else if (book.status() != BookStatus.ACTIVE) {
+                results[i] = failure(bookId, ErrorMessages.BOOK_NOT_AVAILABLE, "Kitap şu anda ödünç alınamaz. Durum: " + book.status());
+            } else if (positions.size() >= freeSlots) {
+                results[i] = failure(bookId, ErrorMessages.MAX_BOOKS_EXCEEDED,
+                        "Aynı anda en fazla " + MAX_ACTIVE_LOANS + " tane ödünç kitaba sahip olunabilir.");
+            } else {
+                positions.put(bookId, i);
+            }
+        }
+
+        // Kitaplar kilitli olduğu için seçilenlerin hepsi güncellenir
+        List<Long> borrowedIds = circulationJdbcRepository.transitionStatuses(positions.keySet(), BookStatus.ACTIVE, BookStatus.BORROWED);
+        List<LoanRow> loans = circulationJdbcRepository.insertLoans(user.getId(), borrowedIds, borrowDate, dueDate);
+        circulationJdbcRepository.adjustActiveLoanCount(user.getId(), loans.size());
+        circulationEventRepository.appendAll(loans.stream()
+                .map(loan -> CirculationEvent.borrowed(loan.bookId(), user.getId(), loan.id()))
+                .toList());
+        loans.forEach(loan -> dueDateQueue.schedule(loan.id(), loan.dueDate()));
+        bookResponseCache.invalidate(borrowedIds);
+
+        for (LoanRow loan : loans) {
+            results[positions.get(loan.bookId())] = success(user, loan, books.get(loan.bookId()).name(), BookStatus.BORROWED);
+        }
+        return toBatchResponse(results);
+    }
+
+    /**
+     * Sepetteki kitapları tek transaction'da iade alır: açık kayıtlar tek UPDATE ile kapatılır,
+     * kitaplar tek UPDATE ile tekrar ACTIVE yapılır ve kullanıcının sayacı bir kez güncellenir.
+     */
+    @Override
+    public BatchCirculationResponse checkinBooks(AppUser user, BatchCirculationRequest request) {
+        List<Long> cart = validateCart(request);
+        // Sıradaki bekleyenler kilitlerden önce, sadece kullanıcının elindeki kitaplar için seçilir
+        Map<Long, HoldQueueEntry> nextHolds = new HashMap<>();
+        for (Long bookId : circulationJdbcRepository.findOpenLoanBookIds(user.getId(), new LinkedHashSet<>(cart))) {
+            claimNextHold(bookId).ifPresent(hold -> nextHolds.put(bookId, hold));
+        }
+        lockUsers(user, nextHolds.values());
+
+        List<LoanRow> closedLoans = circulationJdbcRepository.closeOpenLoans(user.getId(), new LinkedHashSet<>(cart), LocalDate.now());
+        Map<Long, LoanRow> loansByBook = closedLoans.stream()
+                .collect(Collectors.toMap(LoanRow::bookId, Function.identity()));
+        circulationJdbcRepository.adjustActiveLoanCount(user.getId(), -closedLoans.size());
+        // İade olayları sıradakine verme olaylarından önce yazılır ki defter sırası doğru olsun
+        circulationEventRepository.appendAll(closedLoans.stream()
+                .map(loan -> CirculationEvent.returned(loan.bookId(), user.getId(), loan.id()))
+                .toList());
+        closedLoans.forEach(loan -> dueDateQueue.cancel(loan.id()));
+
+        // Sırada bekleyeni olan kitaplar ona verilir, diğerleri tek UPDATE ile ACTIVE yapılır
+        circulationJdbcRepository.lockBooks(loansByBook.keySet());
+        Set<Long> handedOff = new HashSet<>();
+        Set<Long> released = new HashSet<>();
+        for (Long bookId : loansByBook.keySet()) {
+            (handOffToNextHolder(bookId, Optional.ofNullable(nextHolds.get(bookId))) ? handedOff : released).add(bookId);
+        }
+        Map<Long, BookState> books = new HashMap<>(circulationJdbcRepository.updateStatuses(released, BookStatus.ACTIVE));
+        books.putAll(circulationJdbcRepository.updateStatuses(handedOff, BookStatus.BORROWED));
+        bookResponseCache.invalidate(loansByBook.keySet());
+
+        CirculationItemResult[] results = new CirculationItemResult[cart.size()];
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < cart.size(); i++) {
+            Long bookId = cart.get(i);
+            LoanRow loan = loansByBook.get(bookId);
+            if (loan != null && seen.add(bookId)) {
+                BookState book = books.get(bookId);
+                results[i] = success(user, loan, book.name(), book.status());
+            } else {
+                results[i] = failure(bookId, ErrorMessages.BOOK_NOT_FOUND,
+                        "Bu kitap sizin tarafınızdan ödünç alınmamış veya zaten iade edilmiş.");
+            }
+        }
+        return toBatchResponse(results);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<BorrowedBookResponse> getCurrentlyBorrowedBooks(AppUser user) {
@@ -150,16 +267,47 @@ public class BorrowedBookServiceImpl implements BorrowedBookService {
                 .collect(Collectors.toList());
     }
     
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ActiveLoanSummaryResponse getActiveLoanSummary(AppUser user) {
+        requireProjectionReady();
+        long asOfEventId = circulationProjection.lastEventId();
+        List<Long> bookIds = circulationProjection.findLoanedBookIds(user.getId()).stream().sorted().toList();
+        return ActiveLoanSummaryResponse.builder()
+                .activeLoanCount(bookIds.size())
+                .remainingLoanSlots(Math.max(MAX_ACTIVE_LOANS - bookIds.size(), 0))
+                .bookIds(bookIds)
+                .asOfEventId(asOfEventId)
+                .build();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookAvailabilityResponse getBookAvailability(Long bookId) {
+        requireProjectionReady();
+        long asOfEventId = circulationProjection.lastEventId();
+        // Kitabın varlığı ve adı önbellekten, ödünç durumu projeksiyondan gelir.
+        // Ödünçte olmayan kitabın durumu (ACTIVE ya da yönetici tarafından verilmiş LOST) kitabın kendi durumudur.
+        BookResponse book = bookService.findBookById(bookId);
+        BookStatus status = circulationProjection.findLoan(bookId)
+                .map(loan -> loan.lost() ? BookStatus.LOST : BookStatus.BORROWED)
+                .orElse(book.status() == BookStatus.BORROWED ? BookStatus.ACTIVE : book.status());
+        return BookAvailabilityResponse.builder()
+                .bookId(bookId)
+                .bookName(book.name())
+                .status(status)
+                .available(status == BookStatus.ACTIVE)
+                .holdQueueLength(bookHoldQueue.queueLength(bookId))
+                .asOfEventId(asOfEventId)
+                .build();
+    }
+    
     @Override
     @Transactional(readOnly = true)
-    public List<BorrowedBookResponse> getBorrowedBookHistory(AppUser user) {
-        // Kullanıcının geçmiş ödünç aldığı kitapları al
-        List<BorrowedBook> borrowedBookHistory = borrowedBookRepository.findByUserAndActualReturnDateIsNotNull(user);
-        
-        // Boş veya dolu liste olduğunu gözetmeksizin sonuçları DTO'ya dönüştür ve döndür
-        return borrowedBookHistory.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+    public CursorPageResponse<BorrowedBookResponse> getBorrowedBookHistory(AppUser user, LoanHistoryRequest request) {
+        // Kullanıcının geçmiş ödünç aldığı kitaplar, tek JOIN'li projeksiyon sorgusuyla sayfa sayfa
+        return findLoanPage(request, (beforeId, limit) ->
+                borrowedBookRepository.findReturnedLoanViews(user.getId(), beforeId, request.from(), request.to(), limit));
     }
     
     @Override
@@ -179,33 +327,283 @@ public class BorrowedBookServiceImpl implements BorrowedBookService {
     
     @Override
     @Transactional(readOnly = true)
-    public List<BorrowedBookResponse> getUserBorrowedBookHistory(Long userId) {
+    public CursorPageResponse<BorrowedBookResponse> getUserBorrowedBookHistory(Long userId, LoanHistoryRequest request) {
         // Kullanıcıyı bul
-        AppUser user = userService.findUserEntityById(userId);
+        userService.findUserEntityById(userId);
         
-        // Kullanıcının geçmiş ödünç aldığı kitapları al
-        List<BorrowedBook> borrowedBookHistory = borrowedBookRepository.findByUserIdAndActualReturnDateIsNotNull(userId);
-        
-        // Boş veya dolu liste olduğunu gözetmeksizin sonuçları DTO'ya dönüştür ve döndür
-        return borrowedBookHistory.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return findLoanPage(request, (beforeId, limit) ->
+                borrowedBookRepository.findReturnedLoanViews(userId, beforeId, request.from(), request.to(), limit));
     }
     
     @Override
     @Transactional(readOnly = true)
-    public List<BorrowedBookResponse> getAllLostBooks() {
-        // Kayıp olarak işaretlenmiş tüm ödünç kitapları al
-        List<BorrowedBook> lostBooks = borrowedBookRepository.findByLostIsTrue();
+    public CursorPageResponse<BorrowedBookResponse> getAllLostBooks(LoanHistoryRequest request) {
+        // Kayıp olarak işaretlenmiş ödünç kitaplar
+        return findLoanPage(request, (beforeId, limit) ->
+                borrowedBookRepository.findLostLoanViews(beforeId, request.from(), request.to(), limit));
+    }
+    
+    private BorrowedBookResponse borrowBookOnce(AppUser user, BorrowBookRequest request) {
+        // Kullanıcının ödünç alma iznini kontrol etme
+        requireBorrowingAllowed(user);
         
-        // DTO'ya dönüştür ve döndür
-        return lostBooks.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        // Kullanıcının açık ödünç sayacını sınırı aşmadan artırma (COUNT sorgusu yerine tek satır güncellemesi).
+        // Kitap müsait değilse aşağıdaki hata transaction'ı geri alır ve sayaç da eski değerine döner.
+        if (appUserRepository.incrementActiveLoanCount(user.getId(), MAX_ACTIVE_LOANS) == 0) {
+            throw new BaseException(
+                    HttpStatus.BAD_REQUEST, 
+                    ErrorMessages.MAX_BOOKS_EXCEEDED,
+                    "Aynı anda en fazla " + MAX_ACTIVE_LOANS + " tane ödünç kitaba sahip olunabilir."
+            );
+        }
+        
+        // Kullanıcının ödünç alma iznine göre iade tarihini hesaplama
+        LocalDate borrowDate = LocalDate.now();
+        LocalDate dueDate = calculateDueDate(user, borrowDate);
+
+        // Kitabı atomik olarak ACTIVE -> BORROWED yapma; güncellenen satır yoksa kitap yok ya da müsait değil
+        int updated = bookRepository.transitionStatus(request.bookId(), BookStatus.ACTIVE, BookStatus.BORROWED, Instant.now());
+        if (updated == 0) {
+            BookStatus currentStatus = bookRepository.findStatusById(request.bookId())
+                    .orElseThrow(() -> new BaseException(
+                            HttpStatus.NOT_FOUND, 
+                            ErrorMessages.BOOK_NOT_FOUND,
+                            "Kitap bulunamadı. ID: " + request.bookId()
+                    ));
+            throw new BaseException(
+                    HttpStatus.BAD_REQUEST, 
+                    ErrorMessages.BOOK_NOT_AVAILABLE,
+                    currentStatus == BookStatus.BORROWED
+                            ? "Kitap şu anda ödünçte. Sıraya girmek için /api/holds/books/" + request.bookId() + " kullanabilirsiniz."
+                            : "Kitap şu anda ödünç alınamaz. Durum: " + currentStatus
+            );
+        }
+        
+        // Yeni bir ödünç kitap kaydı oluşturma (kitap yüklenmez, sadece referans verilir)
+        BorrowedBook borrowedBook = new BorrowedBook();
+        borrowedBook.setUser(user);
+        borrowedBook.setBook(bookRepository.getReferenceById(request.bookId()));
+        borrowedBook.setBorrowDate(borrowDate);
+        borrowedBook.setDueDate(dueDate);
+        borrowedBook.setActualReturnDate(null); // İade edilmediği için null
+        borrowedBook.setLost(false);
+        
+        // Veritabanına kaydetme
+        BorrowedBook savedBorrowedBook = borrowedBookRepository.save(borrowedBook);
+        circulationEventRepository.append(CirculationEvent.borrowed(request.bookId(), user.getId(), savedBorrowedBook.getId()));
+        dueDateQueue.schedule(savedBorrowedBook.getId(), dueDate);
+        bookResponseCache.invalidate(request.bookId());
+        
+        // Response oluşturma
+        return convertToResponse(savedBorrowedBook);
+    }
+
+    // Ödünç alamayacak kullanıcıların kayıtları düşürülür, sonra sıradaki uygun bekleyen seçilir
+    private Optional<HoldQueueEntry> claimNextHold(Long bookId) {
+        circulationJdbcRepository.dropIneligibleHolds(bookId).forEach(bookHoldQueue::dequeue);
+        return circulationJdbcRepository.claimNextHold(bookId, MAX_ACTIVE_LOANS);
+    }
+
+    /**
+     * İade edilen kitabı claimNextHold ile seçilmiş bekleyene ödünç verir. Bekleyenin kullanıcı satırı ve kitap satırı
+     * kilitli, eski ödünç kaydı kapatılmış olmalı. Seçimden sonra bekleyenin izni düştüyse kaydı düşürülür; sınırı
+     * dolduysa kaydı sırada kalır. İki durumda da kitap müsait olur; kalan kayıtlar (farklı bir kullanıcının satırını
+     * sıra dışı kilitlememek için) sonraki iadede değerlendirilir.
+     *
+     * @return kitap birine verildiyse true (durumu BORROWED kalmalı), bekleyen yoksa false
+     */
+    private boolean handOffToNextHolder(Long bookId, Optional<HoldQueueEntry> nextHold) {
+        if (nextHold.isEmpty()) {
+            return false;
+        }
+        HoldQueueEntry hold = nextHold.get();
+        AppUser holder = appUserRepository.findById(hold.userId()).orElse(null);
+        if (holder == null || holder.getBorrowingPrivilege() == BorrowingPrivilege.UNABLE) {
+            bookHoldRepository.deleteHold(hold.holdId());
+            bookHoldQueue.dequeue(hold);
+            log.info("Sıra kaydı düşürüldü (kullanıcı ödünç alamıyor) - Kitap ID: {}, Kullanıcı ID: {}", bookId, hold.userId());
+            return false;
+        }
+        if (appUserRepository.incrementActiveLoanCount(holder.getId(), MAX_ACTIVE_LOANS) == 0) {
+            log.info("Sıradaki kullanıcının ödünç sınırı dolu, kaydı sırada kaldı - Kitap ID: {}, Kullanıcı ID: {}", bookId, hold.userId());
+            return false;
+        }
+        bookHoldRepository.deleteHold(hold.holdId());
+        bookHoldQueue.dequeue(hold);
+
+        LocalDate borrowDate = LocalDate.now();
+        BorrowedBook loan = new BorrowedBook();
+        loan.setUser(holder);
+        loan.setBook(bookRepository.getReferenceById(bookId));
+        loan.setBorrowDate(borrowDate);
+        loan.setDueDate(calculateDueDate(holder, borrowDate));
+        loan.setLost(false);
+        borrowedBookRepository.save(loan);
+        circulationEventRepository.append(CirculationEvent.borrowed(bookId, holder.getId(), loan.getId()));
+        dueDateQueue.schedule(loan.getId(), loan.getDueDate());
+        log.info("İade edilen kitap sıradaki kullanıcıya verildi - Kitap ID: {}, Kullanıcı: {}", bookId, holder.getUsername());
+        return true;
+    }
+
+    private void requireProjectionReady() {
+        if (!circulationProjection.isReady()) {
+            throw new BaseException(HttpStatus.SERVICE_UNAVAILABLE, "Dolaşım bilgileri henüz yükleniyor, lütfen tekrar deneyin.");
+        }
+    }
+
+    private void requireBorrowingAllowed(AppUser user) {
+        if (user.getBorrowingPrivilege() == BorrowingPrivilege.UNABLE) {
+            throw new BaseException(
+                    HttpStatus.FORBIDDEN, 
+                    ErrorMessages.BORROWING_NOT_ALLOWED,
+                    "Birden fazla kez ödünç alınan kitapları geri getirmediğiz tespit edilmiştir. Kitap ödünç almak hakkınız iptal edilmiştir. Bir yanlışlık olduğunu düşünüyorsanız ilgili birimle iletişime geçiniz."
+            );
+        }
+    }
+
+    private LocalDate calculateDueDate(AppUser user, LocalDate borrowDate) {
+        if (user.getBorrowingPrivilege() == BorrowingPrivilege.FULL) {
+            return borrowDate.plusDays(30);
+        } else if (user.getBorrowingPrivilege() == BorrowingPrivilege.LIMITED) {
+            return borrowDate.plusDays(15);
+        }
+        throw new BaseException(
+                HttpStatus.INTERNAL_SERVER_ERROR, 
+                ErrorMessages.UNEXPECTED_ERROR,
+                "Beklenmeyen bir hata oluştu. User BorrowingPrivilege değeri null veya sorunlu olabilir?"
+        );
+    }
+
+    private List<Long> validateCart(BatchCirculationRequest request) {
+        if (request == null || request.bookIds() == null || request.bookIds().isEmpty()) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, "En az bir kitap ID'si gönderilmelidir.");
+        }
+        if (request.bookIds().size() > MAX_CART_SIZE) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, "Tek istekte en fazla " + MAX_CART_SIZE + " kitap işlenebilir.");
+        }
+        if (request.bookIds().contains(null)) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, "Kitap ID'si boş olamaz.");
+        }
+        return request.bookIds();
+    }
+
+    // Kullanıcı satırını kilitler (tüm ödünç/iade işlemlerinde ilk alınan kilit) ve açık ödünç sayısını döndürür
+    // İade eden ve sıradaki bekleyenlerin kullanıcı satırları tek sorguda id sırasıyla kilitlenir
+    private void lockUsers(AppUser user, Collection<HoldQueueEntry> nextHolds) {
+        Set<Long> userIds = new HashSet<>();
+        userIds.add(user.getId());
+        nextHolds.forEach(hold -> userIds.add(hold.userId()));
+        if (!circulationJdbcRepository.lockUsers(userIds).contains(user.getId())) {
+            throw new BaseException(HttpStatus.NOT_FOUND, ErrorMessages.RESOURCE_NOT_FOUND, "Kullanıcı bulunamadı.");
+        }
+    }
+
+    private int lockUser(AppUser user) {
+        return circulationJdbcRepository.lockUserActiveLoanCount(user.getId())
+                .orElseThrow(() -> new BaseException(HttpStatus.NOT_FOUND, ErrorMessages.RESOURCE_NOT_FOUND, "Kullanıcı bulunamadı."));
+    }
+
+    private CirculationItemResult success(AppUser user, LoanRow loan, String bookName, BookStatus bookStatus) {
+        BorrowedBookResponse response = BorrowedBookResponse.builder()
+                .id(loan.id())
+                .borrowDate(loan.borrowDate())
+                .dueDate(loan.dueDate())
+                .actualReturnDate(loan.actualReturnDate())
+                .lost(loan.lost())
+                .user(new AppUserResponse(user.getUsername(), user.getEmail(), user.getFirstName(), user.getLastName()))
+                .book(BookResponse.builder().id(loan.bookId()).name(bookName).status(bookStatus).build())
+                .build();
+        return CirculationItemResult.builder()
+                .bookId(loan.bookId())
+                .success(true)
+                .loan(response)
+                .build();
+    }
+
+    private CirculationItemResult failure(Long bookId, ErrorMessages error, String details) {
+        return CirculationItemResult.builder()
+                .bookId(bookId)
+                .success(false)
+                .error(error.getMessage())
+                .details(details)
+                .build();
+    }
+
+    private BatchCirculationResponse toBatchResponse(CirculationItemResult[] results) {
+        int succeeded = (int) Arrays.stream(results).filter(CirculationItemResult::success).count();
+        return BatchCirculationResponse.builder()
+                .requested(results.length)
+                .succeeded(succeeded)
+                .failed(results.length - succeeded)
+                .results(List.of(results))
+                .build();
+    }
+
+    // Yarışan isteklerin aynı anda tekrar çakışmaması için artan ve rastgele dağıtılmış bekleme
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(BORROW_RETRY_BASE_DELAY_MS * attempt, BORROW_RETRY_BASE_DELAY_MS * attempt * 2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BaseException(HttpStatus.SERVICE_UNAVAILABLE, ErrorMessages.UNEXPECTED_ERROR, "Ödünç alma işlemi kesildi.");
+        }
+    }
+
+    /**
+     * Projeksiyon sorgusunu bir fazla kayıt isteyerek çalıştırır; fazladan gelen kayıt sonraki sayfanın varlığını gösterir.
+     * İmleç, sayfadaki son (en eski) kaydın id'sidir.
+     */
+    private CursorPageResponse<BorrowedBookResponse> findLoanPage(LoanHistoryRequest request,
+                                                                  BiFunction<Long, Pageable, List<LoanView>> query) {
+        if (request.size() < 1 || request.size() > MAX_PAGE_SIZE) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, "Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        if (request.from() != null && request.to() != null && request.from().isAfter(request.to())) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, "'from' tarihi 'to' tarihinden sonra olamaz.");
+        }
+
+        List<LoanView> rows = query.apply(decodeLoanCursor(request.cursor()), PageRequest.of(0, request.size() + 1));
+        boolean hasNext = rows.size() > request.size();
+        List<LoanView> page = hasNext ? rows.subList(0, request.size()) : rows;
+
+        return CursorPageResponse.<BorrowedBookResponse>builder()
+                .content(page.stream().map(this::convertToResponse).collect(Collectors.toList()))
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? String.valueOf(page.get(page.size() - 1).id()) : null)
+                .build();
+    }
+
+    private Long decodeLoanCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new BaseException(HttpStatus.BAD_REQUEST, ErrorMessages.INVALID_CURSOR, "Cursor could not be decoded.");
+        }
+    }
+
+    private BorrowedBookResponse convertToResponse(LoanView loan) {
+        return BorrowedBookResponse.builder()
+                .id(loan.id())
+                .borrowDate(loan.borrowDate())
+                .dueDate(loan.dueDate())
+                .actualReturnDate(loan.actualReturnDate())
+                .lost(loan.lost())
+                .user(new AppUserResponse(loan.username(), loan.email(), loan.firstName(), loan.lastName()))
+                .book(BookResponse.builder().id(loan.bookId()).name(loan.bookName()).status(loan.bookStatus()).build())
+                .build();
     }
     
     // Entity'i DTO'ya dönüştürme
     private BorrowedBookResponse convertToResponse(BorrowedBook borrowedBook) {
+        return convertToResponse(borrowedBook, borrowedBook.getBook().getStatus());
+    }
+
+    // Kitap durumu SQL ile güncellendiyse entity'deki eski durum yerine yeni durum kullanılır
+    private BorrowedBookResponse convertToResponse(BorrowedBook borrowedBook, BookStatus bookStatus) {
         AppUserResponse userResponse = new AppUserResponse(
                 borrowedBook.getUser().getUsername(),
                 borrowedBook.getUser().getEmail(),
@@ -216,7 +614,7 @@ public class BorrowedBookServiceImpl implements BorrowedBookService {
         BookResponse bookResponse = BookResponse.builder()
                 .id(borrowedBook.getBook().getId())
                 .name(borrowedBook.getBook().getName())
-                .status(borrowedBook.getBook().getStatus())
+                .status(bookStatus)
                 .build();
         
         return BorrowedBookResponse.builder()
@@ -1,12 +1,16 @@
 package io.github.SenaUstun_Dev.library_management.service.impl;
 
+import io.github.SenaUstun_Dev.library_management.cache.ReferenceDataCache;
 import io.github.SenaUstun_Dev.library_management.dto.request.CreatePublisherRequest;
 import io.github.SenaUstun_Dev.library_management.dto.request.UpdatePublisherRequest;
 import io.github.SenaUstun_Dev.library_management.dto.response.PublisherResponse;
 import io.github.SenaUstun_Dev.library_management.entity.Publisher;
 import io.github.SenaUstun_Dev.library_management.exception.BaseException;
 import io.github.SenaUstun_Dev.library_management.exception.ErrorMessages;
+import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
 import io.github.SenaUstun_Dev.library_management.repository.PublisherRepository;
+import io.github.SenaUstun_Dev.library_management.repository.projection.ResourceVersion;
+import io.github.SenaUstun_Dev.library_management.service.BookService;
 import io.github.SenaUstun_Dev.library_management.service.PublisherService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -21,6 +25,9 @@ import java.util.stream.Collectors;
 public class PublisherServiceImpl implements PublisherService {
 
     private final PublisherRepository publisherRepository;
+    private final BookRepository bookRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final BookService bookService;
 
     @Override
     public PublisherResponse addPublisher(CreatePublisherRequest request) {
@@ -45,6 +52,9 @@ public class PublisherServiceImpl implements PublisherService {
         publisher.setName(request.name());
 
         publisherRepository.save(publisher);
+        // Yayıncı adı kitap yanıtlarına gömülü olduğu için ilgili kitaplar da güncellenir
+        bookService.touchBooks(bookRepository.findIdsByPublisherId(id));
+        referenceDataCache.invalidatePublisher(id);
         return convertToResponseDto(publisher);
     }
 
@@ -53,6 +63,7 @@ public class PublisherServiceImpl implements PublisherService {
     public void deletePublisher(Long id) {
         if (publisherRepository.existsById(id)) {
             publisherRepository.deleteById(id);
+            referenceDataCache.invalidatePublisher(id);
         } else {
             throw new BaseException(
                     HttpStatus.NOT_FOUND,
@@ -82,6 +93,23 @@ public class PublisherServiceImpl implements PublisherService {
     }
 
 
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion findPublisherVersion(Long id) {
+        return publisherRepository.findVersionById(id).orElseThrow(() -> new BaseException(
+                HttpStatus.NOT_FOUND,
+                ErrorMessages.PUBLISHER_NOT_FOUND,
+                "Publisher with ID " + id + " not found."
+        ));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion findAllPublishersVersion() {
+        return publisherRepository.findCollectionVersion();
+    }
+
+
     //>>>>>>>>>>>>>> HELPER METHODS
 
     private PublisherResponse convertToResponseDto(Publisher publisher) {
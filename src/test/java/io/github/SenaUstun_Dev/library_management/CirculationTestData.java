@@ -0,0 +1,99 @@
+package io.github.SenaUstun_Dev.library_management;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.github.SenaUstun_Dev.library_management.entity.AppUser;
+import io.github.SenaUstun_Dev.library_management.entity.Book;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BorrowingPrivilege;
+import io.github.SenaUstun_Dev.library_management.repository.AppUserRepository;
+import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
+
+/*
+ * Dolaşım testlerinin ortak verisi: kullanıcı, kitap ve ödünç kaydı oluşturur, oluşturduklarını cleanUp() ile
+ * (bağlı sıra, ödünç, olay ve idempotency kayıtlarıyla birlikte) siler. Testler yarışan transaction'lar kullandığı için
+ * @Transactional değildir; test sınıfı @Import(CirculationTestData.class) ile alır ve @AfterEach'te cleanUp() çağırır.
+ */
+@TestComponent
+public class CirculationTestData {
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+
+    public record Loan(Long id, Long bookId) {
+    }
+
+    public AppUser createUser(String prefix) {
+        return createUser(prefix, BorrowingPrivilege.FULL);
+    }
+
+    public AppUser createUser(String prefix, BorrowingPrivilege privilege) {
+        String username = prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+        AppUser user = appUserRepository.save(AppUser.builder()
+                .username(username)
+                .password("{noop}secret")
+                .email(username + "@example.com")
+                .borrowingPrivilege(privilege)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build());
+        userIds.add(user.getId());
+        return user;
+    }
+
+    public Long createBook(String name) {
+        return createBook(name, BookStatus.ACTIVE);
+    }
+
+    public Long createBook(String name, BookStatus status) {
+        Long bookId = bookRepository.save(Book.builder()
+                .name(name + " " + UUID.randomUUID())
+                .status(status)
+                .build()).getId();
+        bookIds.add(bookId);
+        return bookId;
+    }
+
+    // Servisi atlayarak yeni bir BORROWED kitap için açık ödünç kaydı yazar; kullanıcının sayacı da artar
+    public Loan createLoan(AppUser user, String bookName, LocalDate dueDate) {
+        Long bookId = createBook(bookName, BookStatus.BORROWED);
+        Long loanId = jdbcTemplate.queryForObject(
+                "INSERT INTO borrowed_books (user_id, book_id, borrow_date, due_date, lost) VALUES (?, ?, ?, ?, false) RETURNING id",
+                Long.class, user.getId(), bookId, dueDate.minusDays(14), dueDate);
+        jdbcTemplate.update("UPDATE users SET active_loan_count = active_loan_count + 1 WHERE id = ?", user.getId());
+        return new Loan(loanId, bookId);
+    }
+
+    public void cleanUp() {
+        for (Long bookId : bookIds) {
+            jdbcTemplate.update("DELETE FROM book_holds WHERE book_id = ?", bookId);
+            jdbcTemplate.update("DELETE FROM borrowed_books WHERE book_id = ?", bookId);
+            jdbcTemplate.update("DELETE FROM circulation_events WHERE book_id = ?", bookId);
+            jdbcTemplate.update("DELETE FROM books WHERE id = ?", bookId);
+        }
+        for (Long userId : userIds) {
+            jdbcTemplate.update("DELETE FROM idempotency_keys WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM book_holds WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM circulation_events WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+        bookIds.clear();
+        userIds.clear();
+    }
+}
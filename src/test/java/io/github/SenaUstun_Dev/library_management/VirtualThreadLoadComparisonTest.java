@@ -0,0 +1,154 @@
+package io.github.SenaUstun_Dev.library_management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.github.SenaUstun_Dev.library_management.auth.UserDetailsImpl;
+import io.github.SenaUstun_Dev.library_management.auth.jwt_filter.JwtService;
+import io.github.SenaUstun_Dev.library_management.entity.AppUser;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BorrowingPrivilege;
+import io.github.SenaUstun_Dev.library_management.repository.AppUserRepository;
+import io.github.SenaUstun_Dev.library_management.repository.RoleRepository;
+
+/*
+ * Platform iş parçacıklı varsayılan yapılandırma ile "virtual-threads" profilinin yük karşılaştırması.
+ * Uygulama iki kez (aynı veritabanıyla) başlatılır; her seferinde aynı sayıda eşzamanlı istemci JDBC'ye giden
+ * GET /api/borrowed-books/current uç noktasını belirli bir süre boyunca çağırır, sonuçlar yan yana yazdırılır.
+ *
+ * Sadece -Dbenchmark=true ile çalışır:
+ *   mvn test -Dtest=VirtualThreadLoadComparisonTest -Dbenchmark=true [-Dbenchmark.clients=400 -Dbenchmark.seconds=20]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadLoadComparisonTest {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 400);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("benchmark.seconds", 20));
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+
+    private record LoadResult(String mode, int requests, int errors, double seconds, long[] latenciesMicros) {
+
+        double throughput() {
+            return requests / seconds;
+        }
+
+        long percentile(double p) {
+            if (latenciesMicros.length == 0) {
+                return 0;
+            }
+            return latenciesMicros[(int) Math.min(latenciesMicros.length - 1, Math.ceil(p * latenciesMicros.length) - 1)];
+        }
+    }
+
+    @Test
+    void compareRequestThroughput() throws Exception {
+        LoadResult platform = runLoad("platform");
+        LoadResult virtual = runLoad("virtual", "virtual-threads");
+
+        System.out.printf("%d clients, %d s per mode%n", CLIENTS, DURATION.toSeconds());
+        System.out.printf("%-10s %10s %8s %10s %10s %10s%n", "mode", "req/s", "errors", "p50 (ms)", "p95 (ms)", "p99 (ms)");
+        for (LoadResult result : new LoadResult[] { platform, virtual }) {
+            System.out.printf("%-10s %10.0f %8d %10.1f %10.1f %10.1f%n",
+                    result.mode(), result.throughput(), result.errors(),
+                    result.percentile(0.50) / 1000.0, result.percentile(0.95) / 1000.0, result.percentile(0.99) / 1000.0);
+        }
+
+        assertThat(platform.requests()).isPositive();
+        assertThat(virtual.requests()).isPositive();
+    }
+
+    private LoadResult runLoad(String mode, String... profiles) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryManagementSystemApplication.class)
+                .profiles(profiles)
+                .properties("server.port=0", "spring.jpa.show-sql=false")
+                .run()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            AppUser user = createUser(context);
+            try {
+                String token = context.getBean(JwtService.class).generateToken(new UserDetailsImpl(user));
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/borrowed-books/current"))
+                        .header("Authorization", "Bearer " + token)
+                        .GET()
+                        .build();
+
+                drive(request, WARM_UP, new AtomicInteger(), new AtomicInteger(), new ConcurrentLinkedQueue<>());
+
+                AtomicInteger requests = new AtomicInteger();
+                AtomicInteger errors = new AtomicInteger();
+                ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+                long startedAt = System.nanoTime();
+                drive(request, DURATION, requests, errors, latencies);
+                double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+                long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+                Arrays.sort(sorted);
+                return new LoadResult(mode, requests.get(), errors.get(), seconds, sorted);
+            } finally {
+                JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                jdbcTemplate.update("DELETE FROM user_roles WHERE user_id = ?", user.getId());
+                jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+            }
+        }
+    }
+
+    // İstemci tarafı darboğaz olmasın diye her istemci kendi sanal iş parçacığında çalışır
+    private void drive(HttpRequest request, Duration duration, AtomicInteger requests, AtomicInteger errors,
+                       ConcurrentLinkedQueue<Long> latencies) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long sentAt = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                requests.incrementAndGet();
+                                latencies.add((System.nanoTime() - sentAt) / 1_000);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private AppUser createUser(ConfigurableApplicationContext context) {
+        String username = "load-" + UUID.randomUUID().toString().substring(0, 8);
+        return context.getBean(AppUserRepository.class).save(AppUser.builder()
+                .username(username)
+                .password("{noop}secret")
+                .email(username + "@example.com")
+                .roles(new HashSet<>(Set.of(context.getBean(RoleRepository.class).findByName("ROLE_USER").orElseThrow())))
+                .borrowingPrivilege(BorrowingPrivilege.FULL)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build());
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.SenaUstun_Dev.library_management.circulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.SenaUstun_Dev.library_management.CirculationTestData;
+import io.github.SenaUstun_Dev.library_management.dto.request.BorrowBookRequest;
+import io.github.SenaUstun_Dev.library_management.dto.response.BorrowedBookResponse;
+import io.github.SenaUstun_Dev.library_management.entity.AppUser;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import io.github.SenaUstun_Dev.library_management.exception.BaseException;
+import io.github.SenaUstun_Dev.library_management.exception.ErrorMessages;
+import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
+import io.github.SenaUstun_Dev.library_management.repository.IdempotencyKeyRepository;
+import io.github.SenaUstun_Dev.library_management.service.BorrowedBookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * Idempotency-Key ile gelen ödünç alma:
+ *  - tekrar, işlemi yeniden çalıştırmadan kaydedilmiş yanıtı döner (önbellekte olmayan başka bir replikada da)
+ *  - bekleyen kayıt pending-lease dolana kadar 409 alır, süre dolunca anahtar yeniden sahiplenilir
+ *  - yanıt işlemle aynı transaction'da kaydedilir; kaydedilemezse ödünç de geri alınır
+ */
+@SpringBootTest
+@Import(CirculationTestData.class)
+class IdempotentRequestsTest {
+
+    @Autowired
+    private IdempotentRequests idempotentRequests;
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Autowired
+    private BorrowedBookService borrowedBookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private CirculationTestData testData;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        testData.cleanUp();
+    }
+
+    @Test
+    void repeatedRequestReplaysStoredResponse() {
+        AppUser user = testData.createUser("idempotent");
+        Long bookId = testData.createBook("Idempotent");
+        String key = UUID.randomUUID().toString();
+
+        IdempotentRequests.Result<BorrowedBookResponse> first = borrow(idempotentRequests, user, key, bookId);
+        IdempotentRequests.Result<BorrowedBookResponse> cached = borrow(idempotentRequests, user, key, bookId);
+        // Yanıt önbelleği boş başka bir replika kaydı veritabanından okur
+        IdempotentRequests.Result<BorrowedBookResponse> stored = borrow(otherReplica(), user, key, bookId);
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(cached.replayed()).isTrue();
+        assertThat(stored.replayed()).isTrue();
+        assertThat(cached.body()).isEqualTo(first.body());
+        assertThat(stored.body().id()).isEqualTo(first.body().id());
+        assertThat(loanCount(bookId)).isEqualTo(1);
+        assertThat(keyState(user, key)).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void pendingKeyIsReclaimedAfterLeaseExpires() {
+        AppUser user = testData.createUser("idempotent");
+        Long bookId = testData.createBook("Idempotent");
+        String key = UUID.randomUUID().toString();
+        // Yarıda kalmış bir istek (ör. sunucu kapandı)
+        idempotencyKeyRepository.claim(user.getId(), key, "borrow:" + bookId, Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> borrow(idempotentRequests, user, key, bookId))
+                .isInstanceOfSatisfying(BaseException.class, e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT))
+                .hasMessage(ErrorMessages.REQUEST_IN_PROGRESS.getMessage());
+        assertThat(loanCount(bookId)).isZero();
+
+        jdbcTemplate.update("UPDATE idempotency_keys SET expires_at = CURRENT_TIMESTAMP - INTERVAL '1 second' " +
+                "WHERE user_id = ? AND idempotency_key = ?", user.getId(), key);
+        IdempotentRequests.Result<BorrowedBookResponse> result = borrow(idempotentRequests, user, key, bookId);
+
+        assertThat(result.replayed()).isFalse();
+        assertThat(loanCount(bookId)).isEqualTo(1);
+        assertThat(keyState(user, key)).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void borrowIsRolledBackWhenResponseCannotBeStored() {
+        AppUser user = testData.createUser("idempotent");
+        Long bookId = testData.createBook("Idempotent");
+        String key = UUID.randomUUID().toString();
+
+        // İşlem sürerken bekleyen kayıt temizlenir (pending-lease doldu ve silindi)
+        assertThatThrownBy(() -> idempotentRequests.execute(user.getId(), key, "borrow:" + bookId, BorrowedBookResponse.class,
+                () -> {
+                    BorrowedBookResponse response = borrowedBookService.borrowBook(user, new BorrowBookRequest(bookId));
+                    jdbcTemplate.update("DELETE FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ?", user.getId(), key);
+                    return response;
+                }))
+                .isInstanceOfSatisfying(BaseException.class, e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT));
+
+        assertThat(loanCount(bookId)).isZero();
+        assertThat(bookRepository.findStatusById(bookId)).contains(BookStatus.ACTIVE);
+        assertThat(jdbcTemplate.queryForObject("SELECT active_loan_count FROM users WHERE id = ?", Integer.class, user.getId()))
+                .isZero();
+        assertThat(keyState(user, key)).isNull();
+    }
+
+    private IdempotentRequests.Result<BorrowedBookResponse> borrow(IdempotentRequests requests, AppUser user, String key, Long bookId) {
+        return requests.execute(user.getId(), key, "borrow:" + bookId, BorrowedBookResponse.class,
+                () -> borrowedBookService.borrowBook(user, new BorrowBookRequest(bookId)));
+    }
+
+    private IdempotentRequests otherReplica() {
+        return new IdempotentRequests(idempotencyKeyRepository, objectMapper, transactionManager,
+                Duration.ofHours(24), Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+    }
+
+    private int loanCount(Long bookId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM borrowed_books WHERE book_id = ?", Integer.class, bookId);
+    }
+
+    private String keyState(AppUser user, String key) {
+        return jdbcTemplate.query("SELECT state FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ?",
+                rs -> rs.next() ? rs.getString(1) : null, user.getId(), key);
+    }
+}
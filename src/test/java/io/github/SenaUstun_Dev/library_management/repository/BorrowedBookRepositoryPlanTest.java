@@ -0,0 +1,167 @@
+package io.github.SenaUstun_Dev.library_management.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.github.SenaUstun_Dev.library_management.entity.AppUser;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BorrowingPrivilege;
+import io.github.SenaUstun_Dev.library_management.repository.OverdueSweepRepository.SweepScope;
+
+/*
+ * BorrowedBookRepository ve gecikme taramasının (OverdueSweepRepository) sorgularının borrowed_books üzerinde indeks
+ * kullandığını doğrular. Her metodun çalıştırdığı SQL (Hibernate'in ürettiği veya JDBC ile gönderilen) yakalanır ve
+ * PostgreSQL'de EXPLAIN (GENERIC_PLAN) ile planlanır.
+ * Test verisi az olduğu için seq scan cezalandırılır (enable_seqscan = off); kullanılabilir bir indeks yoksa
+ * planlayıcı yine de seq scan seçer ve test başarısız olur. GENERIC_PLAN PostgreSQL 16 gerektirir.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "io.github.SenaUstun_Dev.library_management.repository.RecordingStatementInspector")
+@Transactional
+class BorrowedBookRepositoryPlanTest {
+
+    private static final Pattern POSITIONAL_PARAMETER = Pattern.compile("\\?");
+
+    @Autowired
+    private BorrowedBookRepository borrowedBookRepository;
+    @Autowired
+    private AppUserRepository appUserRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+
+    private AppUser user;
+
+    @BeforeEach
+    void setUp() {
+        Integer serverVersion = jdbcTemplate.queryForObject("SELECT current_setting('server_version_num')::int", Integer.class);
+        assumeTrue(serverVersion != null && serverVersion >= 160000, "EXPLAIN (GENERIC_PLAN) requires PostgreSQL 16+");
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        user = appUserRepository.save(AppUser.builder()
+                .username("plan-" + suffix)
+                .password("{noop}secret")
+                .borrowingPrivilege(BorrowingPrivilege.FULL)
+                .enabled(true)
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .build());
+        appUserRepository.flush();
+
+        // Sadece bu transaction için; rollback ile geri alınır
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+    }
+
+    @Test
+    void currentLoansByUserUseIndex() {
+        assertUsesIndex(() -> borrowedBookRepository.findByUserAndActualReturnDateIsNull(user));
+        assertUsesIndex(() -> borrowedBookRepository.findByUserIdAndActualReturnDateIsNull(user.getId()));
+    }
+
+    @Test
+    void openLoanLookupUsesIndex() {
+        assertUsesIndex(() -> borrowedBookRepository.findByUserIdAndBookIdAndActualReturnDateIsNull(user.getId(), 1L));
+    }
+
+    @Test
+    void overdueSweepUsesIndex() {
+        RecordingJdbcTemplate recordingJdbcTemplate = new RecordingJdbcTemplate(dataSource);
+        OverdueSweepRepository overdueSweepRepository = new OverdueSweepRepository(recordingJdbcTemplate);
+        SweepScope range = SweepScope.partition(LocalDate.now(), 0, 4).range(0L, 1_000L);
+        SweepScope loans = SweepScope.loans(LocalDate.now(), List.of(1L, 2L));
+
+        assertUsesIndex(recordingJdbcTemplate, () -> overdueSweepRepository.findChunkEnd(range, 1_000));
+        assertUsesIndex(recordingJdbcTemplate, () -> overdueSweepRepository.lockOverdueUsers(range));
+        assertUsesIndex(recordingJdbcTemplate, () -> overdueSweepRepository.lockOverdueUsers(loans));
+        assertUsesIndex(recordingJdbcTemplate, () -> overdueSweepRepository.sweep(range));
+        assertUsesIndex(recordingJdbcTemplate, () -> overdueSweepRepository.sweep(loans));
+        assertUsesIndex(recordingJdbcTemplate, () -> overdueSweepRepository.forEachOpenLoanDueBefore(LocalDate.now(), loan -> { }));
+    }
+
+    @Test
+    void historyAndLostPagesUseIndex() {
+        assertUsesIndex(() -> borrowedBookRepository.findReturnedLoanViews(
+                user.getId(), Long.MAX_VALUE, null, null, PageRequest.of(0, 21)));
+        assertUsesIndex(() -> borrowedBookRepository.findReturnedLoanViews(
+                user.getId(), Long.MAX_VALUE, LocalDate.now().minusYears(1), LocalDate.now(), PageRequest.of(0, 21)));
+        assertUsesIndex(() -> borrowedBookRepository.findLostLoanViews(
+                Long.MAX_VALUE, null, null, PageRequest.of(0, 21)));
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private void assertUsesIndex(Runnable repositoryCall) {
+        RecordingStatementInspector.clear();
+        repositoryCall.run();
+        assertPlanUsesIndex(RecordingStatementInspector.lastStatement());
+    }
+
+    // Sweep gibi veri değiştiren ifadeler de çalıştırılır; test transaction'ı sonunda geri alınır
+    private void assertUsesIndex(RecordingJdbcTemplate recordingJdbcTemplate, Runnable repositoryCall) {
+        repositoryCall.run();
+        assertPlanUsesIndex(recordingJdbcTemplate.lastStatement);
+    }
+
+    private void assertPlanUsesIndex(String sql) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + toNumberedParameters(sql), String.class);
+        String planText = String.join("\n", plan);
+
+        assertThat(planText)
+                .as("Plan for:%n%s%n%s", sql, planText)
+                .doesNotContainPattern("Seq Scan on borrowed_books")
+                .containsPattern("Index (Only )?Scan( Backward)? using \\w+ on borrowed_books|Bitmap Index Scan on \\w*borrowed_books\\w*");
+    }
+
+    // JDBC '?' parametreleri EXPLAIN (GENERIC_PLAN) için $1, $2 ... biçimine çevrilir
+    private static String toNumberedParameters(String sql) {
+        Matcher matcher = POSITIONAL_PARAMETER.matcher(sql);
+        StringBuilder result = new StringBuilder();
+        int index = 0;
+        while (matcher.find()) {
+            matcher.appendReplacement(result, "\\$" + (++index));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    // JDBC ile gönderilen son SQL'i (isimli parametreler '?' olarak açılmış hâliyle) saklar
+    private static final class RecordingJdbcTemplate extends NamedParameterJdbcTemplate {
+
+        private String lastStatement;
+
+        private RecordingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        protected PreparedStatementCreator getPreparedStatementCreator(String sql, SqlParameterSource paramSource,
+                                                                       Consumer<PreparedStatementCreatorFactory> customizer) {
+            PreparedStatementCreator creator = super.getPreparedStatementCreator(sql, paramSource, customizer);
+            lastStatement = ((SqlProvider) creator).getSql();
+            return creator;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.SenaUstun_Dev.library_management.repository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/*
+ * Hibernate'in ürettiği SQL'leri kaydeder; plan testleri repository metodlarının gerçek SQL'ini EXPLAIN eder.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        STATEMENTS.clear();
+    }
+
+    static String lastStatement() {
+        if (STATEMENTS.isEmpty()) {
+            throw new IllegalStateException("No SQL statement was recorded");
+        }
+        return STATEMENTS.get(STATEMENTS.size() - 1);
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.SenaUstun_Dev.library_management.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * Küme kilidi başka bir oturumda (başka bir düğüm gibi) tutulurken iş bu düğümde çalışmaz ve result=skipped
+ * olarak ölçülür; kilit bırakılınca sonraki deneme işi çalıştırır.
+ */
+@SpringBootTest
+class ClusterJobLockTest {
+
+    // ClusterJobLock.LOCK_NAMESPACE ("LMS")
+    private static final int LOCK_NAMESPACE = 0x4C4D53;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final String jobName = "lock-test-" + UUID.randomUUID();
+
+    @Test
+    void jobIsSkippedWhileAnotherSessionHoldsTheLock() throws SQLException {
+        ClusterJobLock clusterJobLock = new ClusterJobLock(dataSource, meterRegistry, Duration.ZERO);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        try (Connection otherNode = dataSource.getConnection()) {
+            assertThat(advisoryLock(otherNode, "pg_try_advisory_lock")).isTrue();
+            try {
+                assertThat(clusterJobLock.runExclusively(jobName, () -> ran.set(true))).isFalse();
+            } finally {
+                advisoryLock(otherNode, "pg_advisory_unlock");
+            }
+        }
+
+        assertThat(ran).isFalse();
+        assertThat(waitCount("skipped")).isEqualTo(1);
+        assertThat(waitCount("acquired")).isZero();
+        assertThat(meterRegistry.find("library.jobs.run").tag("job", jobName).timer()).isNull();
+
+        // Kilit bırakıldı: aynı iş artık bu düğümde çalışır
+        assertThat(clusterJobLock.runExclusively(jobName, () -> ran.set(true))).isTrue();
+        assertThat(ran).isTrue();
+        assertThat(waitCount("acquired")).isEqualTo(1);
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    private boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?, hashtext(?))")) {
+            statement.setInt(1, LOCK_NAMESPACE);
+            statement.setString(2, jobName);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private long waitCount(String result) {
+        Timer timer = meterRegistry.find("library.jobs.lock.wait").tags("job", jobName, "result", result).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
@@ -0,0 +1,134 @@
+package io.github.SenaUstun_Dev.library_management.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.github.SenaUstun_Dev.library_management.CirculationTestData;
+import io.github.SenaUstun_Dev.library_management.entity.AppUser;
+import io.github.SenaUstun_Dev.library_management.repository.OverdueSweepRepository;
+import io.github.SenaUstun_Dev.library_management.service.OverdueLoanSweeper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * Vade kuyruğunun zamanı gelen ödünçleri kayıp işaretlediğini, iade edilmiş ve iptal edilen ödünçleri atladığını doğrular.
+ * spread=0s ile tetikleme tam gece yarısındadır. Bağlamdaki kuyruk kapatılır; test kendi kuyruğunu kurar ve
+ * schedule/cancel ile besleyip iş parçacığıyla işletir. Küme kilidi atlanır ki önbellekteki başka bir test bağlamı
+ * liderliği tutuyor olsa da bu kuyruk lider olsun. İş parçacığı ilk yüklemeden sonra test hazır olana kadar bekletilir:
+ * yükleme test ödünçlerini görmez ve iptal, kayıt işlenmeden önce yapılmış olur.
+ */
+@SpringBootTest(properties = "library.loans.due-queue.enabled=false")
+@Import(CirculationTestData.class)
+class DueDateQueueTest {
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Autowired
+    private OverdueLoanSweeper overdueLoanSweeper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private CirculationTestData testData;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final CountDownLatch seeded = new CountDownLatch(1);
+    private final CountDownLatch scheduled = new CountDownLatch(1);
+    private DueDateQueue dueDateQueue;
+    private AppUser user;
+
+    @BeforeEach
+    void setUp() {
+        OverdueSweepRepository overdueSweepRepository = new OverdueSweepRepository(namedParameterJdbcTemplate) {
+            @Override
+            public void forEachOpenLoanDueBefore(LocalDate before, Consumer<DueLoan> consumer) {
+                super.forEachOpenLoanDueBefore(before, consumer);
+                seeded.countDown();
+                try {
+                    scheduled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        ClusterJobLock alwaysLeader = new ClusterJobLock(dataSource, new SimpleMeterRegistry(), Duration.ZERO) {
+            @Override
+            public boolean runExclusively(String jobName, Runnable job) {
+                job.run();
+                return true;
+            }
+        };
+        dueDateQueue = new DueDateQueue(overdueSweepRepository, overdueLoanSweeper, alwaysLeader, transactionManager,
+                new SimpleMeterRegistry(), true, Duration.ZERO, 2, 100, 60_000L);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        dueDateQueue.stop();
+        testData.cleanUp();
+    }
+
+    @Test
+    void dueLoansAreMarkedLostAndCancelledLoansAreSkipped() throws InterruptedException {
+        dueDateQueue.start();
+        assertThat(seeded.await(10, TimeUnit.SECONDS)).isTrue();
+
+        user = testData.createUser("due-queue");
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Long overdue = createLoan(yesterday);
+        Long returned = createLoan(yesterday);
+        Long cancelled = createLoan(yesterday);
+        Long notDue = createLoan(LocalDate.now());
+        jdbcTemplate.update("UPDATE borrowed_books SET actual_return_date = CURRENT_DATE WHERE id = ?", returned);
+
+        dueDateQueue.schedule(overdue, yesterday);
+        dueDateQueue.schedule(returned, yesterday);
+        dueDateQueue.schedule(cancelled, yesterday);
+        dueDateQueue.schedule(notDue, LocalDate.now());
+        // Ödünç veritabanında açık kalır; sadece kuyruktaki iptal onu korur
+        dueDateQueue.cancel(cancelled);
+        scheduled.countDown();
+
+        // Üç geçmiş vadenin tetikleme zamanı aynı; işaretlenen ödünçle birlikte diğerleri de işlenmiş olur
+        assertThat(awaitLost(overdue)).isTrue();
+        assertThat(isLost(returned)).isFalse();
+        assertThat(isLost(cancelled)).isFalse();
+        assertThat(isLost(notDue)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT borrowing_privilege FROM users WHERE id = ?", String.class, user.getId()))
+                .isEqualTo("LIMITED");
+    }
+
+    // Ödünç id'si döner
+    private Long createLoan(LocalDate dueDate) {
+        return testData.createLoan(user, "Due queue", dueDate).id();
+    }
+
+    private boolean awaitLost(Long loanId) throws InterruptedException {
+        for (int attempt = 0; attempt < 50 && !isLost(loanId); attempt++) {
+            Thread.sleep(100);
+        }
+        return isLost(loanId);
+    }
+
+    private boolean isLost(Long loanId) {
+        return jdbcTemplate.queryForObject("SELECT lost FROM borrowed_books WHERE id = ?", Boolean.class, loanId);
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.SenaUstun_Dev.library_management.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/*
+ * Bellek içi arama indeksinin 1M kitapla sorgu gecikmesi (hedef: seçici sorgularda medyan < 1 ms).
+ * Kitaplar sentetik bir kelime dağarcığından üretilir: 3 kelimelik ad, 2 kelimelik yazar, yayıncı ve tür.
+ * Kısa önekli sorgular (tahmin sınırını aşan, tüm aralığı tarayan) ayrı satırda yazdırılır ve hedefe dahil değildir.
+ *
+ * Sadece -Dbenchmark=true ile çalışır (1M kitap için birkaç GB heap gerekir):
+ *   mvn test -Dtest=BookSearchIndexBenchmarkTest -Dbenchmark=true [-Dbenchmark.books=1000000 -Dbenchmark.queries=2000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BookSearchIndexBenchmarkTest {
+
+    private static final int BOOKS = Integer.getInteger("benchmark.books", 1_000_000);
+    private static final int QUERIES = Integer.getInteger("benchmark.queries", 2_000);
+    private static final int VOCABULARY_SIZE = 50_000;
+    private static final int PUBLISHERS = 2_000;
+    private static final int GENRES = 50;
+    private static final double TARGET_MEDIAN_MS = 1.0;
+
+    private final Random random = new Random(42);
+    private final String[] vocabulary = randomWords(VOCABULARY_SIZE);
+    private final BookSearchIndex index = new BookSearchIndex();
+
+    @Test
+    void searchLatencyAtOneMillionBooks() {
+        long startedAt = System.nanoTime();
+        for (long id = 1; id <= BOOKS; id++) {
+            index.index(randomBook(id));
+        }
+        System.out.printf("%nArama indeksi: %d kitap %d ms'de indekslendi%n", index.size(), (System.nanoTime() - startedAt) / 1_000_000);
+
+        Map<String, double[]> latencies = new LinkedHashMap<>();
+        latencies.put("tek kelime", measure(this::word));
+        latencies.put("iki kelime", measure(() -> word() + " " + word()));
+        latencies.put("kelime + önek", measure(() -> word() + " " + word().substring(0, 3)));
+        latencies.put("kısa önek", measure(() -> word().substring(0, 2)));
+
+        System.out.printf("%-15s %10s %10s %10s%n", "sorgu", "p50 ms", "p99 ms", "max ms");
+        latencies.forEach((name, ms) -> System.out.printf("%-15s %10.3f %10.3f %10.3f%n",
+                name, percentile(ms, 0.50), percentile(ms, 0.99), ms[ms.length - 1]));
+
+        assertThat(percentile(latencies.get("tek kelime"), 0.50)).isLessThan(TARGET_MEDIAN_MS);
+        assertThat(percentile(latencies.get("iki kelime"), 0.50)).isLessThan(TARGET_MEDIAN_MS);
+        assertThat(percentile(latencies.get("kelime + önek"), 0.50)).isLessThan(TARGET_MEDIAN_MS);
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    // Isınma turundan sonra her sorgunun süresi; sıralı döner
+    private double[] measure(Supplier<String> queries) {
+        for (int i = 0; i < QUERIES; i++) {
+            index.search(queries.get(), 20);
+        }
+        double[] millis = new double[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String query = queries.get();
+            long start = System.nanoTime();
+            index.search(query, 20);
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+    }
+
+    private BookSearchDocument randomBook(long id) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (int i = 0; i < 3; i++) {
+            weights.merge(word(), BookSearchDocument.NAME_WEIGHT, Math::max);
+        }
+        for (int i = 0; i < 2; i++) {
+            weights.merge(word(), BookSearchDocument.AUTHOR_WEIGHT, Math::max);
+        }
+        weights.merge("yayinci" + random.nextInt(PUBLISHERS), BookSearchDocument.PUBLISHER_WEIGHT, Math::max);
+        weights.merge("tur" + random.nextInt(GENRES), BookSearchDocument.GENRE_WEIGHT, Math::max);
+        return new BookSearchDocument(id, Map.copyOf(weights));
+    }
+
+    private String word() {
+        return vocabulary[random.nextInt(vocabulary.length)];
+    }
+
+    private String[] randomWords(int count) {
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            char[] letters = new char[5 + random.nextInt(5)];
+            for (int j = 0; j < letters.length; j++) {
+                letters[j] = (char) ('a' + random.nextInt(26));
+            }
+            words[i] = new String(letters);
+        }
+        return words;
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.SenaUstun_Dev.library_management.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * Önekin eşleştiği terim sayısı seçicilik tahminindeki sınırı (64) aştığında sonuçların kesilmediğini doğrular.
+ * Sadece bellek içi indeksi kullanır, veritabanı gerekmez.
+ */
+class BookSearchIndexTest {
+
+    private static final int BOOKS = 100;
+
+    private final BookSearchIndex index = new BookSearchIndex();
+
+    @Test
+    void broadPrefixMatchesEveryTermBeyondTheExpansionCap() {
+        seed();
+
+        assertThat(index.search("kitap", BOOKS * 2)).hasSize(BOOKS);
+    }
+
+    @Test
+    void broadPrefixIsCheckedAgainstCandidatesOfTheSelectiveTerm() {
+        seed();
+        // "kitap099" sıralı terimlerde 64'ün ötesinde; aday kümesini "roman" belirler
+        index.index(new BookSearchDocument(1_000L, Map.of("kitap099", BookSearchDocument.NAME_WEIGHT, "roman", BookSearchDocument.GENRE_WEIGHT)));
+
+        assertThat(index.search("roman kitap", 10)).containsExactly(1_000L);
+    }
+
+    @Test
+    void everyBroadTermScansItsWholeRange() {
+        seed();
+
+        assertThat(index.search("kitap09 kit", 10)).containsExactlyInAnyOrder(90L, 91L, 92L, 93L, 94L, 95L, 96L, 97L, 98L, 99L);
+    }
+
+    private void seed() {
+        for (long id = 0; id < BOOKS; id++) {
+            index.index(new BookSearchDocument(id, Map.of(String.format("kitap%03d", id), BookSearchDocument.NAME_WEIGHT)));
+        }
+    }
+}
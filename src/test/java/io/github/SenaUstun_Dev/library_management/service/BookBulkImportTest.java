@@ -0,0 +1,51 @@
+package io.github.SenaUstun_Dev.library_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.github.SenaUstun_Dev.library_management.dto.request.CreateBookRequest;
+import io.github.SenaUstun_Dev.library_management.dto.response.BulkBookCreateResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.BulkBookResult;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+
+/*
+ * Toplu eklemede istek içi isim tekrarı sadece oluşturulan kitaplar için sayılır: bir parçada reddedilen kitabın
+ * ismi sonraki parçada tekrar denenebilir, oluşturulan kitabın ismi sonraki parçada tekrar olarak reddedilir.
+ * chunk-size=1 ile her kayıt ayrı bir parçadır.
+ */
+@SpringBootTest(properties = "library.books.bulk.chunk-size=1")
+class BookBulkImportTest {
+
+    @Autowired
+    private BookBulkImportService bookBulkImportService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String name = "Bulk " + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM books WHERE name = ?", name);
+    }
+
+    @Test
+    void nameOfRejectedBookCanBeRetriedInLaterChunk() {
+        BulkBookCreateResponse response = bookBulkImportService.addBooks(List.of(
+                new CreateBookRequest(name, BookStatus.ACTIVE, Set.of(-1L), null, null),
+                new CreateBookRequest(name, BookStatus.ACTIVE, null, null, null),
+                new CreateBookRequest(name, BookStatus.ACTIVE, null, null, null)));
+
+        assertThat(response.results()).extracting(BulkBookResult::created).containsExactly(false, true, false);
+        assertThat(response.results().get(2).error()).contains("more than once");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM books WHERE name = ?", Integer.class, name)).isEqualTo(1);
+    }
+}
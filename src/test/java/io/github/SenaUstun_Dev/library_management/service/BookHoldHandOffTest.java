@@ -0,0 +1,155 @@
+package io.github.SenaUstun_Dev.library_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.github.SenaUstun_Dev.library_management.CirculationTestData;
+import io.github.SenaUstun_Dev.library_management.dto.request.BorrowBookRequest;
+import io.github.SenaUstun_Dev.library_management.entity.AppUser;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import io.github.SenaUstun_Dev.library_management.exception.BaseException;
+import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
+
+/*
+ * İadede kitabın sıradaki bekleyene verilmesi:
+ *  - sıra veritabanından okunur, bu düğümün bellek içi kopyasında olmayan (başka düğümde açılmış) kayıtlar da karşılanır
+ *  - ödünç sınırı dolu bekleyen atlanır ama sıradaki yerini korur, sadece ödünç alamayan kullanıcının kaydı düşer
+ *  - iade ve sıradaki kullanıcının aynı kitap için sıraya girme denemesi aynı kilit sırasını kullanır, deadlock oluşmaz
+ */
+@SpringBootTest
+@Import(CirculationTestData.class)
+class BookHoldHandOffTest {
+
+    @Autowired
+    private BorrowedBookService borrowedBookService;
+    @Autowired
+    private BookHoldService bookHoldService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private CirculationTestData testData;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        testData.cleanUp();
+    }
+
+    @Test
+    void returnedBookGoesToHoldPlacedOnAnotherNode() {
+        AppUser borrower = testData.createUser("handoff");
+        AppUser waiting = testData.createUser("handoff");
+        Long bookId = testData.createBook("Hand-off");
+        borrowedBookService.borrowBook(borrower, new BorrowBookRequest(bookId));
+        // Kayıt bellek içi sıraya uğramadan yazılır (başka bir replikada açılmış gibi)
+        jdbcTemplate.update("INSERT INTO book_holds (book_id, user_id) VALUES (?, ?)", bookId, waiting.getId());
+
+        borrowedBookService.returnBook(borrower, bookId);
+
+        assertThat(bookRepository.findStatusById(bookId)).contains(BookStatus.BORROWED);
+        assertThat(openLoanHolder(bookId)).isEqualTo(waiting.getId());
+        assertThat(holdCount(bookId)).isZero();
+        assertThat(activeLoanCountOf(waiting)).isEqualTo(1);
+        assertThat(activeLoanCountOf(borrower)).isZero();
+    }
+
+    @Test
+    void ineligibleHoldersAreSkipped() {
+        AppUser borrower = testData.createUser("handoff");
+        AppUser unable = testData.createUser("handoff");
+        AppUser waiting = testData.createUser("handoff");
+        Long bookId = testData.createBook("Hand-off");
+        borrowedBookService.borrowBook(borrower, new BorrowBookRequest(bookId));
+        jdbcTemplate.update("INSERT INTO book_holds (book_id, user_id) VALUES (?, ?)", bookId, unable.getId());
+        jdbcTemplate.update("INSERT INTO book_holds (book_id, user_id) VALUES (?, ?)", bookId, waiting.getId());
+        jdbcTemplate.update("UPDATE users SET borrowing_privilege = 'UNABLE' WHERE id = ?", unable.getId());
+
+        borrowedBookService.returnBook(borrower, bookId);
+
+        assertThat(openLoanHolder(bookId)).isEqualTo(waiting.getId());
+        assertThat(holdCount(bookId)).isZero();
+    }
+
+    @Test
+    void holderAtLoanLimitKeepsPlaceInQueue() {
+        AppUser borrower = testData.createUser("handoff");
+        AppUser atLimit = testData.createUser("handoff");
+        AppUser waiting = testData.createUser("handoff");
+        Long bookId = testData.createBook("Hand-off");
+        borrowedBookService.borrowBook(borrower, new BorrowBookRequest(bookId));
+        jdbcTemplate.update("INSERT INTO book_holds (book_id, user_id) VALUES (?, ?)", bookId, atLimit.getId());
+        jdbcTemplate.update("INSERT INTO book_holds (book_id, user_id) VALUES (?, ?)", bookId, waiting.getId());
+        jdbcTemplate.update("UPDATE users SET active_loan_count = 3 WHERE id = ?", atLimit.getId());
+
+        borrowedBookService.returnBook(borrower, bookId);
+
+        assertThat(openLoanHolder(bookId)).isEqualTo(waiting.getId());
+        assertThat(jdbcTemplate.queryForList("SELECT user_id FROM book_holds WHERE book_id = ?", Long.class, bookId))
+                .containsExactly(atLimit.getId());
+    }
+
+    @Test
+    void returnAndPlaceHoldByNextHolderDoNotDeadlock() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                AppUser borrower = testData.createUser("handoff");
+                AppUser waiting = testData.createUser("handoff");
+                Long bookId = testData.createBook("Hand-off");
+                borrowedBookService.borrowBook(borrower, new BorrowBookRequest(bookId));
+                bookHoldService.placeHold(waiting, bookId);
+
+                // Eski kilit sırasında iade kitabı kilitleyip bekleyeni beklerken, sıraya girme bekleyeni kilitleyip
+                // kitabı bekliyordu. Sıraya girme reddedilebilir (zaten sırada / kitap artık sizde) ama deadlock olmamalı.
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> returned = executor.submit(() -> {
+                    start.await();
+                    borrowedBookService.returnBook(borrower, bookId);
+                    return null;
+                });
+                Future<?> held = executor.submit(() -> {
+                    start.await();
+                    try {
+                        bookHoldService.placeHold(waiting, bookId);
+                    } catch (BaseException e) {
+                        // Beklenen sonuç
+                    }
+                    return null;
+                });
+                start.countDown();
+                returned.get(30, TimeUnit.SECONDS);
+                held.get(30, TimeUnit.SECONDS);
+
+                assertThat(openLoanHolder(bookId)).isEqualTo(waiting.getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Long openLoanHolder(Long bookId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT user_id FROM borrowed_books WHERE book_id = ? AND actual_return_date IS NULL", Long.class, bookId);
+    }
+
+    private int holdCount(Long bookId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM book_holds WHERE book_id = ?", Integer.class, bookId);
+    }
+
+    private int activeLoanCountOf(AppUser user) {
+        return jdbcTemplate.queryForObject("SELECT active_loan_count FROM users WHERE id = ?", Integer.class, user.getId());
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.SenaUstun_Dev.library_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import io.github.SenaUstun_Dev.library_management.dto.request.BookSortField;
+import io.github.SenaUstun_Dev.library_management.dto.response.BookResponse;
+import io.github.SenaUstun_Dev.library_management.dto.response.CursorPageResponse;
+import io.github.SenaUstun_Dev.library_management.entity.Author;
+import io.github.SenaUstun_Dev.library_management.entity.Book;
+import io.github.SenaUstun_Dev.library_management.entity.BookGenre;
+import io.github.SenaUstun_Dev.library_management.entity.Publisher;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import io.github.SenaUstun_Dev.library_management.repository.AuthorRepository;
+import io.github.SenaUstun_Dev.library_management.repository.BookGenreRepository;
+import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
+import io.github.SenaUstun_Dev.library_management.repository.PublisherRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/*
+ * Kitap listeleme uçlarının, listedeki kitap sayısından bağımsız olarak
+ * sabit sayıda SQL ifadesiyle çalıştığını doğrular (N+1 regresyon testi).
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class BookServiceStatementBudgetTest {
+
+    // Liste başına izin verilen en fazla SQL ifadesi:
+    // (varsa) tür/yayıncı araması + id sorgusu + önbellekte olmayanların ilişkileriyle toplu yüklenmesi
+    private static final long STATEMENT_BUDGET = 3;
+    private static final int BOOK_COUNT = 30;
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private PublisherRepository publisherRepository;
+    @Autowired
+    private BookGenreRepository bookGenreRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String suffix;
+
+    @BeforeEach
+    void seedCatalog() {
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        Set<Author> authors = Set.of(
+                authorRepository.save(Author.builder().firstName("Budget" + suffix).penName("A1-" + suffix).build()),
+                authorRepository.save(Author.builder().firstName("Budget" + suffix).penName("A2-" + suffix).build()));
+        Set<Publisher> publishers = Set.of(
+                publisherRepository.save(Publisher.builder().name("P1-" + suffix).build()),
+                publisherRepository.save(Publisher.builder().name("P2-" + suffix).build()));
+        Set<BookGenre> genres = Set.of(
+                bookGenreRepository.save(BookGenre.builder().name("G1-" + suffix).build()),
+                bookGenreRepository.save(BookGenre.builder().name("G2-" + suffix).build()));
+
+        for (int i = 0; i < BOOK_COUNT; i++) {
+            bookRepository.save(Book.builder()
+                    .name("Budget book " + i + " " + suffix)
+                    .status(BookStatus.ACTIVE)
+                    .authors(new HashSet<>(authors))
+                    .publishers(new HashSet<>(publishers))
+                    .genres(new HashSet<>(genres))
+                    .build());
+        }
+
+        // Birinci seviye önbellek temizlenir ki ölçülen okumalar gerçekten veritabanına gitsin
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void statusListingStaysWithinStatementBudget() {
+        List<BookResponse> books = bookService.findActiveBooks();
+
+        assertThat(books).hasSizeGreaterThanOrEqualTo(BOOK_COUNT);
+        assertThat(books).allSatisfy(book -> assertThat(book.authors()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(STATEMENT_BUDGET);
+    }
+
+    @Test
+    void cursorPageStaysWithinStatementBudget() {
+        CursorPageResponse<BookResponse> page = bookService.findAll(null, 25, BookSortField.ID, Sort.Direction.DESC);
+
+        assertThat(page.content()).hasSize(25);
+        assertThat(page.content().get(0).genres()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(STATEMENT_BUDGET);
+    }
+
+    @Test
+    void genreAndPublisherSearchStayWithinStatementBudget() {
+        assertThat(bookService.findBookByGenre("G1-" + suffix)).hasSize(BOOK_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(STATEMENT_BUDGET);
+
+        statistics.clear();
+        assertThat(bookService.findBookByPublisher("P1-" + suffix)).hasSize(BOOK_COUNT);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(STATEMENT_BUDGET);
+    }
+}
@@ -0,0 +1,160 @@
+package io.github.SenaUstun_Dev.library_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.github.SenaUstun_Dev.library_management.CirculationTestData;
+import io.github.SenaUstun_Dev.library_management.dto.request.BorrowBookRequest;
+import io.github.SenaUstun_Dev.library_management.entity.AppUser;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import io.github.SenaUstun_Dev.library_management.exception.BaseException;
+import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
+
+/*
+ * Aynı kitabı aynı anda ödünç almaya çalışan kullanıcılardan sadece birinin başarılı olduğunu doğrular.
+ * Transaction'lar gerçekten yarışsın diye test sınıfı @Transactional değildir; veriler @AfterEach'te silinir.
+ */
+@SpringBootTest
+@Import(CirculationTestData.class)
+class BorrowContentionTest {
+
+    private static final int CONTENDERS = 8;
+
+    @Autowired
+    private BorrowedBookService borrowedBookService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private CirculationTestData testData;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<AppUser> users = new ArrayList<>();
+
+    @BeforeEach
+    void seedUsers() {
+        for (int i = 0; i < CONTENDERS; i++) {
+            users.add(testData.createUser("contender" + i));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        testData.cleanUp();
+    }
+
+    @Test
+    void onlyOneConcurrentBorrowSucceeds() throws Exception {
+        Long bookId = testData.createBook("Contended");
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger unavailable = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONTENDERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (AppUser user : users) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        borrowedBookService.borrowBook(user, new BorrowBookRequest(bookId));
+                        successes.incrementAndGet();
+                    } catch (BaseException e) {
+                        assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+                        unavailable.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(successes.get()).isEqualTo(1);
+        assertThat(unavailable.get()).isEqualTo(CONTENDERS - 1);
+        assertThat(openLoanCount(bookId)).isEqualTo(1);
+        assertThat(bookRepository.findStatusById(bookId)).contains(BookStatus.BORROWED);
+    }
+
+    /*
+     * Sıcak başlık benchmark'ı: her turda tüm kullanıcılar aynı yeni kitap için yarışır.
+     * Sadece -Dbenchmark=true ile çalışır: mvn test -Dtest=BorrowContentionTest -Dbenchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void hotTitleBorrowThroughput() throws Exception {
+        int rounds = Integer.getInteger("benchmark.rounds", 200);
+        List<Long> roundBookIds = new ArrayList<>(rounds);
+        for (int i = 0; i < rounds; i++) {
+            roundBookIds.add(testData.createBook("Hot title " + i));
+        }
+
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger successes = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(CONTENDERS);
+        long startedAt = System.nanoTime();
+        try {
+            for (Long bookId : roundBookIds) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (AppUser user : users) {
+                    futures.add(executor.submit(() -> {
+                        attempts.incrementAndGet();
+                        try {
+                            borrowedBookService.borrowBook(user, new BorrowBookRequest(bookId));
+                            successes.incrementAndGet();
+                        } catch (BaseException e) {
+                            // Beklenen sonuç: kitap başka bir kullanıcı tarafından alındı
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+                // Kullanıcılar 3 kitap sınırına takılmasın diye tur sonunda kitap iade edilir; iade servis üzerinden
+                // yapılır ki kullanıcının active_loan_count sayacı da azalsın
+                borrowedBookService.returnBook(openLoanHolder(bookId), bookId);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+        System.out.printf("Hot title borrow: %d attempts, %d successes in %.2f s (%.0f attempts/s)%n",
+                attempts.get(), successes.get(), seconds, attempts.get() / seconds);
+        assertThat(successes.get()).isEqualTo(rounds);
+    }
+
+    private AppUser openLoanHolder(Long bookId) {
+        Long userId = jdbcTemplate.queryForObject(
+                "SELECT user_id FROM borrowed_books WHERE book_id = ? AND actual_return_date IS NULL", Long.class, bookId);
+        return users.stream().filter(user -> user.getId().equals(userId)).findFirst().orElseThrow();
+    }
+
+    private int openLoanCount(Long bookId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM borrowed_books WHERE book_id = ? AND actual_return_date IS NULL",
+                Integer.class, bookId);
+    }
+}
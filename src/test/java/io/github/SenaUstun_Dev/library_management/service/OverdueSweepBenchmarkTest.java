@@ -0,0 +1,114 @@
+package io.github.SenaUstun_Dev.library_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.github.SenaUstun_Dev.library_management.cache.BookResponseCache;
+import io.github.SenaUstun_Dev.library_management.repository.JobCheckpointRepository;
+import io.github.SenaUstun_Dev.library_management.repository.OverdueSweepRepository;
+import io.github.SenaUstun_Dev.library_management.service.OverdueLoanSweeper.Mode;
+import io.github.SenaUstun_Dev.library_management.service.OverdueLoanSweeper.Summary;
+
+/*
+ * Gecikme taramasının seri (SINGLE, CHUNKED) ve PARALLEL modlarının süre karşılaştırması.
+ * Her mod için aynı veri (kullanıcı başına birkaç gecikmiş ödünç) yeniden oluşturulur, tarama çalıştırılır ve
+ * süreler CHUNKED'a göre hızlanma oranıyla yazdırılır. Paralellik Hikari havuzunun boyutunu aşmamalıdır.
+ *
+ * Sadece -Dbenchmark=true ile çalışır:
+ *   mvn test -Dtest=OverdueSweepBenchmarkTest -Dbenchmark=true [-Dbenchmark.users=20000 -Dbenchmark.parallelism=4]
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OverdueSweepBenchmarkTest {
+
+    private static final int USERS = Integer.getInteger("benchmark.users", 20000);
+    private static final int LOANS_PER_USER = Integer.getInteger("benchmark.loans-per-user", 2);
+    private static final int CHUNK_SIZE = Integer.getInteger("benchmark.chunk-size", 500);
+    private static final int PARALLELISM = Integer.getInteger("benchmark.parallelism", 4);
+
+    @Autowired
+    private OverdueSweepRepository overdueSweepRepository;
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+    @Autowired
+    private BookResponseCache bookResponseCache;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        deleteSeedData();
+    }
+
+    @Test
+    void compareSerialAndParallelSweeps() {
+        Map<Mode, Long> millis = new LinkedHashMap<>();
+        for (Mode mode : Mode.values()) {
+            deleteSeedData();
+            seedOverdueLoans();
+
+            OverdueLoanSweeper sweeper = new OverdueLoanSweeper(overdueSweepRepository, jobCheckpointRepository,
+                    bookResponseCache, transactionManager, mode, CHUNK_SIZE, PARALLELISM);
+            long start = System.nanoTime();
+            Summary summary = sweeper.sweep(LocalDate.now());
+            millis.put(mode, (System.nanoTime() - start) / 1_000_000);
+
+            assertThat(summary.loansMarkedLost()).isGreaterThanOrEqualTo(USERS * LOANS_PER_USER);
+            assertThat(countSeedUsersWithPrivilege("UNABLE")).isEqualTo(LOANS_PER_USER > 1 ? USERS : 0);
+        }
+
+        long serial = millis.get(Mode.CHUNKED);
+        System.out.printf("%nGecikme taraması: %d kullanıcı x %d ödünç, chunk-size=%d, parallelism=%d%n",
+                USERS, LOANS_PER_USER, CHUNK_SIZE, PARALLELISM);
+        System.out.printf("%-10s %10s %10s%n", "mod", "ms", "hızlanma");
+        millis.forEach((mode, ms) -> System.out.printf("%-10s %10d %9.2fx%n", mode, ms, serial / (double) Math.max(ms, 1)));
+    }
+
+    //>>>>>>>>>>>>>> HELPER METHODS
+
+    // Her kullanıcıya LOANS_PER_USER kitap; i. kitap (i / LOANS_PER_USER). kullanıcıya verilir
+    private void seedOverdueLoans() {
+        jdbcTemplate.update(
+                "INSERT INTO users (username, password, email, borrowing_privilege, active_loan_count) " +
+                        "SELECT 'sweep-bench-' || n, '{noop}secret', 'sweep-bench-' || n || '@example.com', 'FULL', ? " +
+                        "FROM generate_series(1, ?) n",
+                LOANS_PER_USER, USERS);
+        jdbcTemplate.update(
+                "INSERT INTO books (name, status) SELECT 'Sweep bench ' || n, 'BORROWED' FROM generate_series(1, ?) n",
+                USERS * LOANS_PER_USER);
+        jdbcTemplate.update(
+                "INSERT INTO borrowed_books (user_id, book_id, borrow_date, due_date, lost) " +
+                        "SELECT u.id, bk.id, CURRENT_DATE - 40, CURRENT_DATE - 10, false " +
+                        "FROM (SELECT id, row_number() OVER (ORDER BY id) - 1 AS n FROM books WHERE name LIKE 'Sweep bench %') bk " +
+                        "JOIN (SELECT id, row_number() OVER (ORDER BY id) - 1 AS n FROM users WHERE username LIKE 'sweep-bench-%') u " +
+                        "ON u.n = bk.n / ?",
+                LOANS_PER_USER);
+        jdbcTemplate.execute("ANALYZE borrowed_books");
+    }
+
+    private int countSeedUsersWithPrivilege(String privilege) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM users WHERE username LIKE 'sweep-bench-%' AND borrowing_privilege = ?",
+                Integer.class, privilege);
+    }
+
+    private void deleteSeedData() {
+        jdbcTemplate.update("DELETE FROM circulation_events WHERE user_id IN (SELECT id FROM users WHERE username LIKE 'sweep-bench-%')");
+        jdbcTemplate.update("DELETE FROM borrowed_books WHERE user_id IN (SELECT id FROM users WHERE username LIKE 'sweep-bench-%')");
+        jdbcTemplate.update("DELETE FROM books WHERE name LIKE 'Sweep bench %'");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'sweep-bench-%'");
+    }
+}
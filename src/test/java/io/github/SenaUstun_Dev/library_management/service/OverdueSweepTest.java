@@ -0,0 +1,143 @@
+package io.github.SenaUstun_Dev.library_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.github.SenaUstun_Dev.library_management.CirculationTestData;
+import io.github.SenaUstun_Dev.library_management.entity.AppUser;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BookStatus;
+import io.github.SenaUstun_Dev.library_management.entity.enums.BorrowingPrivilege;
+import io.github.SenaUstun_Dev.library_management.repository.BookRepository;
+import io.github.SenaUstun_Dev.library_management.repository.JobCheckpointRepository;
+
+/*
+ * Küme tabanlı gecikme taramasının eski döngüyle aynı kuralları uyguladığını doğrular:
+ * her kayıp kitap izni bir kademe düşürür (FULL -> LIMITED -> UNABLE), UNABLE değişmez.
+ * Vade kuyruğu kapatılır ki gece taraması dünkü vadeleri de kapsasın (kuyruk açıkken bunlar kuyruğun işidir).
+ * Parçalı tarama yarıda kalmışsa aynı gün checkpoint'ten devam eder; checkpoint'e kadar olan ödünçlere dokunmaz.
+ */
+@SpringBootTest(properties = {"library.loans.due-queue.enabled=false", "library.loans.overdue.mode=CHUNKED"})
+@Import(CirculationTestData.class)
+class OverdueSweepTest {
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+    @Autowired
+    private OverdueLoanSweeper overdueLoanSweeper;
+    @Autowired
+    private JobCheckpointRepository jobCheckpointRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private CirculationTestData testData;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<AppUser> users = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        testData.cleanUp();
+        jdbcTemplate.update("DELETE FROM job_checkpoints WHERE job_name = ?", OverdueLoanSweeper.JOB_NAME);
+    }
+
+    @Test
+    void overdueLoansAreMarkedLostAndPrivilegesDropOneLevelPerBook() {
+        AppUser fullOneBook = createUser(BorrowingPrivilege.FULL);
+        AppUser fullTwoBooks = createUser(BorrowingPrivilege.FULL);
+        AppUser limited = createUser(BorrowingPrivilege.LIMITED);
+        AppUser unable = createUser(BorrowingPrivilege.UNABLE);
+        AppUser notOverdue = createUser(BorrowingPrivilege.FULL);
+
+        Long lostBook = createLoan(fullOneBook, LocalDate.now().minusDays(1));
+        createLoan(fullTwoBooks, LocalDate.now().minusDays(3));
+        createLoan(fullTwoBooks, LocalDate.now().minusDays(2));
+        createLoan(limited, LocalDate.now().minusDays(1));
+        createLoan(unable, LocalDate.now().minusDays(1));
+        Long dueToday = createLoan(notOverdue, LocalDate.now());
+
+        scheduledTaskService.checkOverdueBooks();
+
+        assertThat(privilegeOf(fullOneBook)).isEqualTo("LIMITED");
+        assertThat(privilegeOf(fullTwoBooks)).isEqualTo("UNABLE");
+        assertThat(privilegeOf(limited)).isEqualTo("UNABLE");
+        assertThat(privilegeOf(unable)).isEqualTo("UNABLE");
+        assertThat(privilegeOf(notOverdue)).isEqualTo("FULL");
+        assertThat(lostBookCountOf(fullTwoBooks)).isEqualTo(2);
+        assertThat(lostBookCountOf(notOverdue)).isZero();
+        assertThat(bookRepository.findStatusById(lostBook)).contains(BookStatus.LOST);
+        assertThat(bookRepository.findStatusById(dueToday)).contains(BookStatus.BORROWED);
+        assertThat(privilegeChangeEvents()).isEqualTo(3);
+
+        // İkinci çalıştırma aynı kayıtları tekrar cezalandırmaz
+        scheduledTaskService.checkOverdueBooks();
+        assertThat(lostBookCountOf(fullTwoBooks)).isEqualTo(2);
+    }
+
+    @Test
+    void interruptedChunkedSweepResumesFromCheckpoint() {
+        AppUser user = createUser(BorrowingPrivilege.FULL);
+        Long processedBook = createLoan(user, LocalDate.now().minusDays(2));
+        Long remainingBook = createLoan(user, LocalDate.now().minusDays(1));
+        long processedLoan = loanIdOf(processedBook);
+        // Önceki çalıştırma ilk ödünçten sonra kesildi (ödünç o parçada işlenmiş sayılır)
+        jobCheckpointRepository.save(OverdueLoanSweeper.JOB_NAME, LocalDate.now(), processedLoan, false);
+
+        overdueLoanSweeper.sweep(LocalDate.now());
+
+        assertThat(isLost(processedBook)).isFalse();
+        assertThat(bookRepository.findStatusById(processedBook)).contains(BookStatus.BORROWED);
+        assertThat(isLost(remainingBook)).isTrue();
+        assertThat(bookRepository.findStatusById(remainingBook)).contains(BookStatus.LOST);
+        assertThat(jobCheckpointRepository.find(OverdueLoanSweeper.JOB_NAME))
+                .hasValueSatisfying(checkpoint -> {
+                    assertThat(checkpoint.completed()).isTrue();
+                    assertThat(checkpoint.runDate()).isEqualTo(LocalDate.now());
+                    assertThat(checkpoint.lastId()).isGreaterThanOrEqualTo(loanIdOf(remainingBook));
+                });
+    }
+
+    private AppUser createUser(BorrowingPrivilege privilege) {
+        AppUser user = testData.createUser("overdue", privilege);
+        users.add(user);
+        return user;
+    }
+
+    // Kitap id'si döner
+    private Long createLoan(AppUser user, LocalDate dueDate) {
+        return testData.createLoan(user, "Overdue", dueDate).bookId();
+    }
+
+    private long loanIdOf(Long bookId) {
+        return jdbcTemplate.queryForObject("SELECT id FROM borrowed_books WHERE book_id = ?", Long.class, bookId);
+    }
+
+    private boolean isLost(Long bookId) {
+        return jdbcTemplate.queryForObject("SELECT lost FROM borrowed_books WHERE book_id = ?", Boolean.class, bookId);
+    }
+
+    private String privilegeOf(AppUser user) {
+        return jdbcTemplate.queryForObject("SELECT borrowing_privilege FROM users WHERE id = ?", String.class, user.getId());
+    }
+
+    private int lostBookCountOf(AppUser user) {
+        return jdbcTemplate.queryForObject("SELECT lost_book_count FROM users WHERE id = ?", Integer.class, user.getId());
+    }
+
+    private int privilegeChangeEvents() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM circulation_events WHERE event_type = 'PRIVILEGE_CHANGED' AND user_id IN (" +
+                        String.join(",", users.stream().map(user -> String.valueOf(user.getId())).toList()) + ")",
+                Integer.class);
+    }
+}